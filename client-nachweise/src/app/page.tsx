@@ -5,6 +5,7 @@ import { LanguageSwitcher } from '@/components/ui/LanguageSwitcher';
 import { ThemeToggleButton } from '@/components/ui/ThemeToggleButton';
 import { useTranslation } from '@/context/LanguageContext';
 import { useAppDispatch, useAppSelector } from '@/store';
+import { logout } from '@/lib/api';
 import { clearUser, selectUser } from '@/store/slices/userSlice';
 import { useRouter } from 'next/navigation';
 import { useEffect } from 'react';
@@ -22,6 +23,7 @@ export default function Home() {
   }, [user.isLoggedIn, router]);
 
   const handleLogout = () => {
+    void logout();
     dispatch(clearUser());
     router.push('/login');
   };
@@ -10,6 +10,7 @@ import {
 } from 'lucide-react';
 import Link from 'next/link';
 import { useAppDispatch } from '@/store';
+import { logout } from '@/lib/api';
 import { clearUser, User } from '@/store/slices/userSlice';
 import { Button } from './button';
 import { ThemeToggleButton } from './ThemeToggleButton';
@@ -23,6 +24,7 @@ export function Navbar({ user }: { user: User }) {
   const dispatch = useAppDispatch();
 
   const handleLogout = () => {
+    void logout();
     dispatch(clearUser());
   };
 
@@ -1,5 +1,5 @@
 import { store } from '@/store';
-import { updateAccessToken } from '@/store/slices/userSlice';
+import { updateTokens } from '@/store/slices/userSlice';
 import axios from 'axios';
 
 const api = axios.create({
@@ -20,6 +20,34 @@ api.interceptors.request.use(
   }
 );
 
+// Der Refresh Token ist nach einem Refresh verbraucht (Rotation). Parallele 401er
+// müssen sich deshalb denselben Refresh-Request teilen.
+let refreshPromise: Promise<string> | null = null;
+
+const refreshAccessToken = () => {
+  if (!refreshPromise) {
+    refreshPromise = axios
+      .post(
+        '/api/auth/refresh',
+        {
+          refreshToken: store.getState().user.refreshToken,
+        },
+        {
+          baseURL: process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8088',
+        }
+      )
+      .then((rs) => {
+        const { accessToken, refreshToken } = rs.data;
+        store.dispatch(updateTokens({ accessToken, refreshToken }));
+        return accessToken as string;
+      })
+      .finally(() => {
+        refreshPromise = null;
+      });
+  }
+  return refreshPromise;
+};
+
 // Response interceptor to handle token refresh
 api.interceptors.response.use(
   (res) => {
@@ -34,20 +62,7 @@ api.interceptors.response.use(
         originalConfig._retry = true;
 
         try {
-          const rs = await axios.post(
-            '/api/auth/refresh',
-            {
-              refreshToken: store.getState().user.refreshToken,
-            },
-            {
-              baseURL:
-                process.env.NEXT_PUBLIC_API_URL ||
-                'http://localhost:8088',
-            }
-          );
-
-          const { accessToken } = rs.data;
-          store.dispatch(updateAccessToken(accessToken));
+          await refreshAccessToken();
 
           return api(originalConfig);
         } catch (_error) {
@@ -70,4 +85,19 @@ export const resetPassword = async (token: string, newPassword: string) => {
   return response.data;
 };
 
+export const logout = async () => {
+  // Token sofort lesen – clearUser() läuft direkt danach
+  const { token, refreshToken } = store.getState().user;
+  if (!token) return;
+  try {
+    await api.post(
+      '/api/auth/logout',
+      { refreshToken },
+      { headers: { Authorization: 'Bearer ' + token } }
+    );
+  } catch {
+    // Token war eh schon ungültig -> lokal trotzdem ausloggen
+  }
+};
+
 export default api;
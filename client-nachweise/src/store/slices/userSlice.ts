@@ -45,10 +45,18 @@ export const userSlice = createSlice({
     updateAccessToken: (state, action: PayloadAction<string>) => {
       state.token = action.payload;
     },
+    // Refresh Tokens werden bei jedem Refresh rotiert -> beide Tokens ersetzen
+    updateTokens: (
+      state,
+      action: PayloadAction<{ accessToken: string; refreshToken: string }>
+    ) => {
+      state.token = action.payload.accessToken;
+      state.refreshToken = action.payload.refreshToken;
+    },
   },
 });
 
-export const { setUser, clearUser, updateAccessToken } =
+export const { setUser, clearUser, updateAccessToken, updateTokens } =
   userSlice.actions;
 
 export const selectUser = (state: RootState) => state.user;
@@ -0,0 +1,9 @@
+#!/bin/bash
+# Läuft einmalig beim Anlegen des Primary-Volumes: Replikations-User + pg_hba-Eintrag für den Standby
+set -e
+
+psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" <<-EOSQL
+    CREATE ROLE replicator WITH REPLICATION LOGIN PASSWORD '${POSTGRES_REPLICATION_PASSWORD:-replicator}';
+EOSQL
+
+echo "host replication replicator all scram-sha-256" >> "$PGDATA/pg_hba.conf"
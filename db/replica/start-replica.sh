@@ -0,0 +1,15 @@
+#!/bin/bash
+# Startet den Standby: beim ersten Mal Basis-Backup vom Primary ziehen (-R schreibt standby.signal +
+# primary_conninfo), danach ganz normal postgres starten
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until PGPASSWORD="${POSTGRES_REPLICATION_PASSWORD:-replicator}" \
+        pg_basebackup -h db -U replicator -D "$PGDATA" -R -X stream; do
+        echo "Warte auf Primary..."
+        sleep 2
+    done
+    chmod 0700 "$PGDATA"
+fi
+
+exec postgres
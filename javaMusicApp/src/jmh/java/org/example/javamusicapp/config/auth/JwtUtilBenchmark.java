@@ -0,0 +1,101 @@
+package org.example.javamusicapp.config.auth;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import org.example.javamusicapp.model.Role;
+import org.example.javamusicapp.model.User;
+import org.example.javamusicapp.model.enums.ERole;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.Key;
+import java.security.SecureRandom;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ **Was geht hier ab?**
+ * Misst, was die JWT-Prüfung pro authentifiziertem Request an CPU kostet.
+ *
+ * - **legacyPerRequest**: Der alte Ablauf im `JwtAuthenticationFilter` – `extractSubject()` und danach
+ *   `isTokenValid()` (nochmal Subject + Expiration). Also 3x Base64-Decode, 3x HMAC-Key bauen,
+ *   3x Parser bauen und 3x Signatur prüfen.
+ * - **parseOncePerRequest**: Der neue Ablauf – ein `parseAndValidate()` mit vorberechnetem Key und
+ *   wiederverwendetem Parser, danach nur noch ein String-Vergleich auf den Claims (Cache aus).
+ * - **cachedPerRequest**: Wie oben, aber der Token liegt schon im `VerifiedTokenCache` – kostet nur noch
+ *   einen SHA-256-Digest und einen Map-Lookup.
+ *
+ * Starten mit `./gradlew jmh`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtUtilBenchmark {
+
+    private String secret;
+    private JwtUtil jwtUtil;
+    private JwtUtil cachingJwtUtil;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        byte[] keyBytes = new byte[64];
+        new SecureRandom().nextBytes(keyBytes);
+        secret = Encoders.BASE64.encode(keyBytes);
+        jwtUtil = new JwtUtil(secret, 864000L, new VerifiedTokenCache(0, 0, null, null));
+        cachingJwtUtil = new JwtUtil(secret, 864000L, new VerifiedTokenCache(10_000, 0, null, null));
+
+        Role role = new Role();
+        role.setId(UUID.randomUUID());
+        role.setName(ERole.ROLE_USER);
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("vergildmc5");
+        user.setName("Vergil from Devil May Cry 5");
+        user.setEmail("vergildmc5@lyrics.app");
+        user.getRoles().add(role);
+
+        token = jwtUtil.generateToken(user);
+        cachingJwtUtil.parseAndValidate(token);
+    }
+
+    @Benchmark
+    public boolean legacyPerRequest() {
+        String subject = legacyClaims(token).getSubject();
+        boolean sameUser = legacyClaims(token).getSubject().equals(user.getEmail());
+        boolean notExpired = !legacyClaims(token).getExpiration().before(new Date());
+        return subject != null && sameUser && notExpired;
+    }
+
+    @Benchmark
+    public boolean parseOncePerRequest() {
+        Claims claims = jwtUtil.parseAndValidate(token);
+        return claims != null && jwtUtil.isTokenValidFor(claims, user);
+    }
+
+    @Benchmark
+    public boolean cachedPerRequest() {
+        Claims claims = cachingJwtUtil.parseAndValidate(token);
+        return claims != null && cachingJwtUtil.isTokenValidFor(claims, user);
+    }
+
+    // Nachbau des alten JwtUtil.extractAllClaims(): Key + Parser bei jedem Aufruf neu
+    private Claims legacyClaims(String jwt) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+}
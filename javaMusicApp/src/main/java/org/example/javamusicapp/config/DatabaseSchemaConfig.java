@@ -0,0 +1,58 @@
+package org.example.javamusicapp.config;
+
+import org.flywaydb.database.postgresql.PostgreSQLConfigurationExtension;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 🗄️ **Was geht hier ab?**
+ * Das Schema gehört jetzt Flyway (`src/main/resources/db/migration`), nicht mehr Hibernate.
+ * Vorher lief `ddl-auto=update`: Hibernate hat bei jedem Start das ganze Schema inspiziert (langsamer Boot)
+ * und die Indizes, die unsere Queries brauchen, nie angelegt.
+ *
+ * - **Flyway**: `V1__baseline.sql` ist das bisherige Schema, ab `V2` kommen echte Migrationen. Eine bestehende
+ *   DB ohne Flyway-Historie wird automatisch auf Version 1 gebaselined, V1 läuft dort also nicht nochmal.
+ * - **Hibernate**: Prüft nur noch (`validate`), ob Entities und Tabellen zusammenpassen, und ändert nichts.
+ * - **Advisory-Lock**: Flyway hält auf PostgreSQL standardmäßig einen transaktionalen Advisory-Lock – in einer
+ *   offenen Transaktion auf einer ZWEITEN Connection. `create index concurrently` (V2) wartet auf alle offenen
+ *   Transaktionen, also auch auf diese, und der Start hängt. Deshalb nimmt Flyway hier den Session-Lock
+ *   (`spring.flyway.postgresql.transactional-lock=false`).
+ *
+ * Alles nur Defaults: Wer `spring.jpa.hibernate.ddl-auto`, `spring.flyway.baseline-on-migrate` oder
+ * `spring.flyway.postgresql.transactional-lock` explizit setzt (z.B. lokal in der `application.properties`), gewinnt.
+ */
+@Configuration
+public class DatabaseSchemaConfig {
+
+    @Value("${spring.jpa.hibernate.ddl-auto:validate}")
+    private String ddlAuto;
+
+    @Value("${spring.flyway.baseline-on-migrate:true}")
+    private boolean baselineOnMigrate;
+
+    @Value("${spring.flyway.baseline-version:1}")
+    private String baselineVersion;
+
+    @Value("${spring.flyway.postgresql.transactional-lock:false}")
+    private boolean transactionalLock;
+
+    @Bean
+    public HibernatePropertiesCustomizer schemaValidationCustomizer() {
+        return properties -> properties.put(AvailableSettings.HBM2DDL_AUTO, ddlAuto);
+    }
+
+    @Bean
+    public FlywayConfigurationCustomizer baselineCustomizer() {
+        return configuration -> {
+            configuration
+                    .baselineOnMigrate(baselineOnMigrate)
+                    .baselineVersion(baselineVersion);
+            configuration.getPluginRegister().getPlugin(PostgreSQLConfigurationExtension.class)
+                    .setTransactionalLock(transactionalLock);
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.javamusicapp.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🧊 **Was geht hier ab?**
+ * Der Hibernate Second-Level-Cache (JCache mit Caffeine, im Prozess) für die Stammdaten, die ständig gelesen werden:
+ * - **role** (READ_ONLY): Die Rollen-Tabelle ist winzig und ändert sich nie. `roleRepository.findByName(...)` lief
+ *   bei jeder Registrierung und Rollen-Änderung, jetzt kommt das Ergebnis aus dem Query-Cache (**role-queries**).
+ * - **user** + **user.roles** (READ_WRITE): Über das EAGER `@ManyToOne` auf `Nachweis` wurden dieselben User-Zeilen
+ *   pro Request mehrfach geladen. Schreibt Hibernate einen User (auch per JPQL-Bulk-Update wie `sperreAccount`),
+ *   wird der Cache automatisch mit aktualisiert bzw. geleert.
+ *
+ * Der Cache ist pro Instanz. Damit andere Instanzen Änderungen trotzdem mitkriegen, laufen User-Einträge nach
+ * `app.l2-cache.user.ttl-seconds` ab (wie beim `PrincipalCache`). Alle Regionen sind nach oben begrenzt.
+ *
+ * Statistiken: `hibernate.generate_statistics` ist an, die Zahlen landen als `hibernate.second.level.cache.*` und
+ * `hibernate.cache.query.*` in Micrometer (`/actuator/metrics`), pro Region gibt's `/actuator/l2cache`.
+ * Wie immer gewinnt, wer die Properties explizit über `spring.jpa.properties.*` setzt.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    // Hibernates Standard-Region für die Zeitstempel der letzten Änderung pro Tabelle (Query-Cache-Invalidierung)
+    private static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Value("${app.l2-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.l2-cache.user.ttl-seconds:60}")
+    private long userTtlSeconds;
+
+    @Value("${app.l2-cache.user.max-entries:10000}")
+    private long userMaxEntries;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateJCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+        erstelleRegion(cacheManager, "role", 100, 0);
+        erstelleRegion(cacheManager, "role-queries", 100, 0);
+        erstelleRegion(cacheManager, "user", userMaxEntries, userTtlSeconds);
+        erstelleRegion(cacheManager, "user.roles", userMaxEntries, userTtlSeconds);
+        // Darf nie vor den Query-Ergebnissen ablaufen, sonst liefert der Query-Cache veraltete Treffer
+        erstelleRegion(cacheManager, TIMESTAMPS_REGION, 1_000, 0);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateJCacheManager) {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.putIfAbsent(AvailableSettings.USE_QUERY_CACHE, enabled);
+            properties.putIfAbsent(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.putIfAbsent(ConfigSettings.CACHE_MANAGER, hibernateJCacheManager);
+            properties.putIfAbsent(ConfigSettings.MISSING_CACHE_STRATEGY, "create-warn");
+            properties.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    private static void erstelleRegion(CacheManager cacheManager, String name, long maxEntries, long ttlSeconds) {
+        // Der Caffeine-CacheManager ist pro ClassLoader ein Singleton, z.B. bei mehreren Test-Kontexten
+        if (cacheManager.getCache(name) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        if (ttlSeconds > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        }
+        cacheManager.createCache(name, configuration);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.javamusicapp.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 📊 **Was geht hier ab?**
+ * Actuator-Endpoint `/actuator/l2cache`: Treffer, Fehlschläge und Größe pro Second-Level-Cache-Region, dazu die
+ * Query-Cache-Zahlen. Für Dashboards gibt's dieselben Werte als Micrometer-Metriken, das hier ist der schnelle
+ * Blick ohne Tag-Gefummel. Muss wie jeder Endpoint über `management.endpoints.web.exposure.include` freigegeben
+ * werden.
+ */
+@Component
+@Endpoint(id = "l2cache")
+public class HibernateCacheEndpoint {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public HibernateCacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistiken() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regionen = new TreeMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            regionen.put(region, zahlen(regionStatistics.getHitCount(), regionStatistics.getMissCount(),
+                    regionStatistics.getPutCount(), regionStatistics.getElementCountInMemory()));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("regions", regionen);
+        result.put("queryCache", zahlen(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(), -1));
+        return result;
+    }
+
+    private static Map<String, Object> zahlen(long hits, long misses, long puts, long elements) {
+        Map<String, Object> zahlen = new LinkedHashMap<>();
+        zahlen.put("hits", hits);
+        zahlen.put("misses", misses);
+        zahlen.put("puts", puts);
+        long requests = hits + misses;
+        zahlen.put("hitRatio", requests == 0 ? 0.0 : (double) hits / requests);
+        if (elements >= 0) {
+            zahlen.put("elements", elements);
+        }
+        return zahlen;
+    }
+}
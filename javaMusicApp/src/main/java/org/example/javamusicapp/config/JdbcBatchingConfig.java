@@ -0,0 +1,57 @@
+package org.example.javamusicapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 📦 **Was geht hier ab?**
+ * Jeder neue oder geänderte Nachweis schreibt 8+ Aktivitäten. Ohne Batching war das ein INSERT (bzw. beim
+ * Update ein DELETE über `orphanRemoval`) pro Zeile – also ein Round Trip zur DB pro Aktivität.
+ *
+ * - **Hibernate-Batching**: `hibernate.jdbc.batch_size` (`app.jpa.batch-size`), dazu `order_inserts` und
+ *   `order_updates`, damit Statements gleicher Art direkt hintereinander landen und in einen Batch passen.
+ * - **PostgreSQL-Treiber**: `reWriteBatchedInserts` macht aus dem Batch ein einziges mehrzeiliges INSERT
+ *   (`app.jdbc.rewrite-batched-inserts`).
+ *
+ * Unsere IDs sind UUIDs, die Hibernate selbst erzeugt – das verträgt sich mit Batching (IDENTITY würde es für
+ * die Entity abschalten). Wer die Hibernate-Properties explizit über `spring.jpa.properties.*` setzt, gewinnt.
+ */
+@Configuration
+public class JdbcBatchingConfig {
+
+    @Value("${app.jpa.batch-size:50}")
+    private int batchSize;
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+            properties.putIfAbsent(AvailableSettings.BATCH_VERSIONED_DATA, true);
+        };
+    }
+
+    // static, damit der Post-Processor vor der DataSource steht und den Rest der Config nicht zu früh lädt
+    @Bean
+    public static BeanPostProcessor rewriteBatchedInsertsPostProcessor(
+            @Value("${app.jdbc.rewrite-batched-inserts:true}") boolean rewriteBatchedInserts) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // Nur für PostgreSQL, andere Treiber (z.B. H2 in Tests) kennen die Property nicht
+                if (rewriteBatchedInserts && bean instanceof HikariDataSource dataSource
+                        && dataSource.getJdbcUrl() != null
+                        && dataSource.getJdbcUrl().startsWith("jdbc:postgresql:")) {
+                    dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+                }
+                return bean;
+            }
+        };
+    }
+}
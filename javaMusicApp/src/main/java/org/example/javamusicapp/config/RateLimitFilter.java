@@ -4,41 +4,82 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.example.javamusicapp.config.ratelimit.ClientIpResolver;
+import org.example.javamusicapp.config.ratelimit.HybridRateLimiter;
+import org.example.javamusicapp.config.ratelimit.LocalRateLimiter;
+import org.example.javamusicapp.config.ratelimit.RateLimitCostResolver;
+import org.example.javamusicapp.config.ratelimit.RateLimitDecision;
+import org.example.javamusicapp.config.ratelimit.RateLimiter;
+import org.example.javamusicapp.config.ratelimit.RedisRateLimiter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.example.javamusicapp.model.User;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 🚪 **Was geht hier ab?**
- * Das ist unser Türsteher auf Steroiden. Der checkt, wie oft eine IP-Adresse unsere API anfragt.
+ * Das ist unser Türsteher auf Steroiden. Der checkt, wie oft ein User (oder ohne Login: eine IP-Adresse)
+ * unsere API anfragt.
  * Wenn jemand zu krass spamt (mehr als X Anfragen pro Minute), kriegt er 'nen Timeout (HTTP 429)
  * und wird für 'ne Weile geblockt. Schützt die App vor DDoS-artigen Angriffen und überlasteten Servern.
  *
  * Checkt zuerst, ob Redis am Start ist, um die Anfragen über mehrere Instanzen der App hinweg zu zählen.
- * Wenn nicht, no stress, dann nimmt er 'ne lokale Map. Full-on Abwehrmodus.
+ * Dort läuft ein GCRA-Token-Bucket als ein einziges Lua-Script (`RedisRateLimiter`), ein Round Trip pro Request.
+ * Wenn Redis nicht da ist (oder gerade zickt und der `RedisCircuitBreaker` offen ist), no stress, dann nimmt
+ * er den `LocalRateLimiter` (begrenzt, räumt sich selbst auf). Full-on Abwehrmodus. Die Client-IP kommt vom
+ * `ClientIpResolver`, der `X-Forwarded-For` nur von vertrauenswürdigen Proxies glaubt.
+ *
+ * Der Filter läuft NACH dem `JwtAuthenticationFilter`: Eingeloggte User haben ihren eigenen Bucket (`user:<id>`),
+ * damit sich nicht eine ganze Firma hinter einem NAT 100 Requests teilt. Nur anonyme Requests laufen über die IP.
+ * Teure Routen (PDF, Bulk) kosten mehr Tokens als Reads, siehe `RateLimitCostResolver`.
+ *
+ * Jede Antwort bekommt `RateLimit-Limit`, `RateLimit-Remaining` und `RateLimit-Reset` (Sekunden),
+ * ein 429 zusätzlich `Retry-After`. Config: `app.ratelimit.limit` und `app.ratelimit.window-seconds`.
+ * Mit `app.ratelimit.hybrid.enabled=true` läuft Redis im Lease-Modus (`HybridRateLimiter`): nur noch ein paar
+ * Redis-Calls pro Sekunde und Instanz statt einem pro Request.
  */
+@Slf4j
 @Component
 public class RateLimitFilter extends OncePerRequestFilter {
 
-    private final StringRedisTemplate redisTemplate;
-
-    // Simple local fixed-window map: ip -> Window(count, windowId)
-    private final Map<String, Window> local = new ConcurrentHashMap<>();
-
-    // Configuration (simple defaults)
-    private final long windowSeconds = 60; // seconds per window
-    private final long limit = 100; // max requests per window
+    private final RateLimiter redisRateLimiter;
+    private final LocalRateLimiter localRateLimiter;
+    private final ClientIpResolver clientIpResolver;
+    private final RateLimitCostResolver costResolver;
+    private final long limit;
 
     @Autowired
-    public RateLimitFilter(@Autowired(required = false) StringRedisTemplate redisTemplate) {
-        this.redisTemplate = redisTemplate;
+    public RateLimitFilter(@Autowired(required = false) StringRedisTemplate redisTemplate,
+            RedisCircuitBreaker redisCircuitBreaker,
+            LocalRateLimiter localRateLimiter,
+            ClientIpResolver clientIpResolver,
+            RateLimitCostResolver costResolver,
+            @Value("${app.ratelimit.limit:100}") long limit,
+            @Value("${app.ratelimit.window-seconds:60}") long windowSeconds,
+            @Value("${app.ratelimit.hybrid.enabled:false}") boolean hybridEnabled,
+            @Value("${app.ratelimit.hybrid.lease-size:10}") long leaseSize,
+            @Value("${app.ratelimit.hybrid.lease-ttl-ms:1000}") long leaseTtlMillis,
+            @Value("${app.ratelimit.local.max-entries:100000}") int maxEntries) {
+        this.localRateLimiter = localRateLimiter;
+        this.clientIpResolver = clientIpResolver;
+        this.costResolver = costResolver;
+        this.limit = limit;
+        if (redisTemplate == null) {
+            this.redisRateLimiter = null;
+        } else if (hybridEnabled) {
+            this.redisRateLimiter = new HybridRateLimiter(redisTemplate, redisCircuitBreaker, limit, windowSeconds,
+                    leaseSize, leaseTtlMillis, maxEntries);
+        } else {
+            this.redisRateLimiter = new RedisRateLimiter(redisTemplate, redisCircuitBreaker, limit, windowSeconds);
+        }
     }
 
     @Override
@@ -55,59 +96,56 @@ public class RateLimitFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        String ip = extractClientIp(request);
-        long nowWindow = (System.currentTimeMillis() / 1000) / windowSeconds;
+        String key = resolveKey(request);
+        // Mehr als das Limit kann ein Bucket nie hergeben
+        long cost = Math.max(1, Math.min(costResolver.costOf(request), limit));
+        RateLimitDecision decision = acquire(key, cost);
 
-        if (redisTemplate != null) {
-            // Simple distributed fixed-window counter in Redis
-            String key = String.format("rate:%s:%d", ip, nowWindow);
-            Long count = redisTemplate.opsForValue().increment(key);
-            if (count != null && count == 1L) {
-                redisTemplate.expire(key, Duration.ofSeconds(windowSeconds));
-            }
-            if (count != null && count > limit) {
-                response.setStatus(429);
-                response.setHeader("Retry-After", String.valueOf(windowSeconds));
-                response.getWriter().write("Too Many Requests");
-                return;
-            }
-            filterChain.doFilter(request, response);
-        } else {
-            // Local simple fixed-window counter
-            Window w = local.compute(ip, (k, old) -> {
-                if (old == null || old.windowId != nowWindow) {
-                    return new Window(nowWindow, new AtomicLong(1));
-                } else {
-                    old.counter.incrementAndGet();
-                    return old;
-                }
-            });
+        response.setHeader("RateLimit-Limit", String.valueOf(decision.getLimit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.getRemaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(toSeconds(decision.getResetMillis())));
+        if (!decision.isAllowed()) {
+            response.setStatus(429);
+            response.setHeader("Retry-After", String.valueOf(toSeconds(decision.getRetryAfterMillis())));
+            response.getWriter().write("Too Many Requests");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
 
-            if (w != null && w.counter.get() > limit) {
-                response.setStatus(429);
-                response.setHeader("Retry-After", String.valueOf(windowSeconds));
-                response.getWriter().write("Too Many Requests");
-                return;
+    private String resolveKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            if (authentication.getPrincipal() instanceof User user && user.getId() != null) {
+                return "user:" + user.getId();
             }
-            filterChain.doFilter(request, response);
+            return "user:" + authentication.getName();
         }
+        return "ip:" + clientIpResolver.resolve(request);
     }
 
-    private String extractClientIp(HttpServletRequest request) {
-        String xf = request.getHeader("X-Forwarded-For");
-        if (xf != null && !xf.isEmpty()) {
-            return xf.split(",")[0].trim();
+    private RateLimitDecision acquire(String key, long cost) {
+        if (redisRateLimiter != null) {
+            try {
+                // Die Limiter schicken nur ihre echten Redis-Calls durch den Breaker. Bei offenem Breaker fliegt
+                // sofort eine Exception, ohne Redis anzufassen
+                return redisRateLimiter.tryAcquire(key, cost);
+            } catch (Exception e) {
+                log.debug("Rate-Limit: Redis nicht erreichbar, nutze lokalen Limiter: {}", e.getMessage());
+            }
         }
-        return request.getRemoteAddr();
+        return localRateLimiter.tryAcquire(key, cost);
     }
 
-    private static class Window {
-        final long windowId;
-        final AtomicLong counter;
-
-        Window(long windowId, AtomicLong counter) {
-            this.windowId = windowId;
-            this.counter = counter;
+    @Override
+    public void destroy() {
+        if (redisRateLimiter instanceof HybridRateLimiter hybrid) {
+            hybrid.close();
         }
     }
+
+    private static long toSeconds(long millis) {
+        return Math.max(0, (millis + 999) / 1000);
+    }
 }
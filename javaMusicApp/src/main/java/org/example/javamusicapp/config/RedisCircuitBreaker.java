@@ -0,0 +1,131 @@
+package org.example.javamusicapp.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.javamusicapp.exception.RedisUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * ⚡ **Was geht hier ab?**
+ * Wenn Redis lahmt, soll nicht jeder Request bis zum Timeout hängen bleiben. Dieser Circuit Breaker sitzt
+ * vor den Redis-Features auf dem heißen Pfad (Rate-Limiting, Refresh Tokens, Token-Versionen):
+ * - **CLOSED**: Alles normal. Nach `app.redis.breaker.failure-threshold` Fehlern in Folge geht er auf OPEN.
+ * - **OPEN**: Redis wird gar nicht erst gefragt, Aufrufer bekommen sofort eine `RedisUnavailableException`
+ *   (bzw. nutzen ihren Fallback, z.B. den lokalen Rate-Limiter). Nach `app.redis.breaker.open-ms` geht's weiter.
+ * - **HALF_OPEN**: Genau EIN Probe-Call darf durch. Klappt er, ist alles wieder CLOSED, sonst wieder OPEN.
+ *
+ * Zusammen mit dem knappen Command-Timeout aus der `RedisConfig` wird ein Redis-Schluckauf so nicht mehr zur
+ * API-weiten Latenzspitze. Der Zustand steht im Health-Endpoint (`redisCircuitBreaker`) und als Metrik
+ * `redis.circuit.state` (0 = closed, 1 = half-open, 2 = open).
+ *
+ * Wichtig: Nur Calls, die wirklich Redis anfassen, durch `execute()` schicken. Jeder Erfolg setzt den Fehlerzähler
+ * zurück – ein lokal bedienter Aufruf würde den Breaker sonst schließen, während Redis weg ist.
+ */
+@Slf4j
+@Component
+public class RedisCircuitBreaker implements HealthIndicator {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile long openedAt;
+
+    public RedisCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${app.redis.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${app.redis.breaker.open-ms:10000}") long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        Gauge.builder("redis.circuit.state", state, s -> s.get().ordinal()).register(meterRegistry);
+    }
+
+    /**
+     * Führt den Redis-Call aus, wenn der Breaker es erlaubt.
+     *
+     * @throws RedisUnavailableException wenn der Breaker offen ist oder der Call fehlschlägt.
+     */
+    public <T> T execute(Supplier<T> call) {
+        if (!isCallPermitted()) {
+            throw new RedisUnavailableException("Redis ist gerade nicht erreichbar.", retryAfterSeconds());
+        }
+        try {
+            T result = call.get();
+            recordSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            recordFailure(e);
+            throw new RedisUnavailableException("Redis ist gerade nicht erreichbar.", retryAfterSeconds(), e);
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    private boolean isCallPermitted() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) {
+                return false;
+            }
+            if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                log.info("Redis-Circuit-Breaker: HALF_OPEN, teste Verbindung");
+            }
+        }
+        // HALF_OPEN: nur ein Probe-Call gleichzeitig
+        return trialInFlight.compareAndSet(false, true);
+    }
+
+    private void recordSuccess() {
+        consecutiveFailures.set(0);
+        State previous = state.getAndSet(State.CLOSED);
+        trialInFlight.set(false);
+        if (previous != State.CLOSED) {
+            log.info("Redis-Circuit-Breaker: wieder CLOSED");
+        }
+    }
+
+    private void recordFailure(RuntimeException e) {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (state.get() == State.HALF_OPEN || failures >= failureThreshold) {
+            openedAt = System.currentTimeMillis();
+            State previous = state.getAndSet(State.OPEN);
+            if (previous != State.OPEN) {
+                log.warn("Redis-Circuit-Breaker: OPEN nach {} Fehlern in Folge ({})", failures, e.getMessage());
+            }
+        }
+        trialInFlight.set(false);
+    }
+
+    private long retryAfterSeconds() {
+        long remaining = openMillis - (System.currentTimeMillis() - openedAt);
+        return Math.max(1, (remaining + 999) / 1000);
+    }
+
+    @Override
+    public Health health() {
+        // Die App läuft ohne Redis weiter (mit Fallbacks), deshalb bleibt der Status UP
+        return Health.up()
+                .withDetail("state", state.get().name())
+                .withDetail("consecutiveFailures", consecutiveFailures.get())
+                .build();
+    }
+}
@@ -1,15 +1,20 @@
 package org.example.javamusicapp.config;
 
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory; // NEUER Import
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 /**
  * 🚀 **Was geht hier ab?**
  * Hier wird die Connection zu Redis klargemacht. Redis ist 'ne geisteskrank schnelle In-Memory-Datenbank.
@@ -19,9 +24,12 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
  * Statt jedes Mal lahm auf die Haupt-DB zuzugreifen, holt sich die App die Daten blitzschnell aus Redis.
  * Das gibt der App 'nen krassen Performance-Boost und sorgt für 'nen smootheren Vibe.
  * Diese Klasse stellt sicher, dass die App weiß, wo Redis läuft und wie sie damit quatschen soll.
+ *
+ * Die Timeouts sind bewusst knapp (`app.redis.command-timeout-ms`, `app.redis.connect-timeout-ms`): Lieber
+ * schnell scheitern und auf den Fallback gehen (siehe `RedisCircuitBreaker`), als jeden Request mit den
+ * Lettuce-Defaults (60 s) hängen zu lassen.
  */
 @Configuration
-@EnableRedisRepositories(basePackages = "org.example.javamusicapp.repository")
 public class RedisConfig {
 
     // Werte aus application.properties injizieren
@@ -31,11 +39,25 @@ public class RedisConfig {
     @Value("${spring.data.redis.port:6379}")
     private int redisPort;
 
+    @Value("${app.redis.command-timeout-ms:500}")
+    private long commandTimeoutMillis;
+
+    @Value("${app.redis.connect-timeout-ms:1000}")
+    private long connectTimeoutMillis;
+
     // 1. Manuelle Konfiguration der Redis Connection Factory
     @Bean
     public RedisConnectionFactory redisConnectionFactory() {
         // Wir nutzen die Lettuce-Implementierung
-        return new LettuceConnectionFactory(redisHost, redisPort);
+        LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
+                .commandTimeout(Duration.ofMillis(commandTimeoutMillis))
+                .clientOptions(ClientOptions.builder()
+                        .socketOptions(SocketOptions.builder()
+                                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                                .build())
+                        .build())
+                .build();
+        return new LettuceConnectionFactory(new RedisStandaloneConfiguration(redisHost, redisPort), clientConfig);
     }
 
     // 2. Manuelle Konfiguration des RedisTemplate (wie zuvor, aber mit injizierter ConnectionFactory)
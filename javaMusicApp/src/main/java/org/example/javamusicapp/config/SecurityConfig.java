@@ -42,9 +42,9 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * und skaliert besser.
  * 3. **Filter einbauen:** Hängt unsere custom Filter in die Security-Kette
  * rein.
- * - `RateLimitFilter`: Kommt fast zuerst, um Spammer früh zu blocken.
  * - `JwtAuthenticationFilter`: Kommt vor dem Standard-Login-Filter, um die JWTs
  * zu checken.
+ * - `RateLimitFilter`: Direkt danach, damit pro User (statt nur pro IP) gezählt werden kann.
  * 4. **CORS:** Konfiguriert die CORS-Regeln, damit das Frontend mit dem Backend
  * quatschen kann, ohne dass
  * der Browser es blockt.
@@ -106,8 +106,8 @@ public class SecurityConfig {
                 .addFilterBefore(
                         jwtAuthenticationFilter,
                         UsernamePasswordAuthenticationFilter.class)
-                // Add rate-limit filter before JWT filter so rate limiting applies early
-                .addFilterBefore(
+                // Rate limiting right after the JWT filter, so it can key on the authenticated principal
+                .addFilterAfter(
                         rateLimitFilter,
                         JwtAuthenticationFilter.class);
 
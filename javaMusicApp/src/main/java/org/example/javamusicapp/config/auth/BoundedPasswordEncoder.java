@@ -0,0 +1,141 @@
+package org.example.javamusicapp.config.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.javamusicapp.exception.ServiceOverloadedException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 🧯 **Was geht hier ab?**
+ * BCrypt ist absichtlich langsam (~50-100 ms CPU pro Hash). Ohne Limit kann eine Login-Welle jeden
+ * Request-Thread und jeden Core blockieren – und dann hängt auch die normale API.
+ *
+ * Dieser Wrapper schickt jedes `encode()`/`matches()` durch einen eigenen, begrenzten Thread-Pool:
+ * - **Feste Anzahl Hash-Threads**: Es wird nie auf mehr Cores gleichzeitig gehasht, als konfiguriert.
+ * - **Begrenzte Queue**: Ist sie voll, wird SOFORT mit `ServiceOverloadedException` (503 + Retry-After)
+ *   abgelehnt, statt Threads aufzustauen.
+ * - **Max. Wartezeit**: Wer zu lange wartet, fliegt ebenfalls mit 503 raus.
+ *
+ * Achtung: Die Wartezeit begrenzt nur, wie lange der AUFRUFER hängt, nicht die CPU. BCrypt prüft nie das
+ * Interrupt-Flag – ein Hash, der schon läuft, rechnet nach dem Timeout trotzdem zu Ende und hält seinen
+ * Pool-Thread so lange fest. Nur Aufgaben, die noch in der Queue stehen, werden wirklich verworfen. Die
+ * CPU-Grenze ist deshalb allein die Thread-Anzahl (`app.auth.hashing.threads`, Standard die Hälfte der Cores):
+ * Mehr Hashes als Threads laufen nie gleichzeitig, auch nicht unter Last mit lauter Timeouts.
+ *
+ * Metriken: `auth.password.hash` (reine Hash-Zeit), `auth.password.hash.total` (inkl. Wartezeit),
+ * `auth.password.hash.rejected` und `auth.password.hash.queue` (aktuelle Queue-Tiefe).
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final long RETRY_AFTER_SECONDS = 2;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMillis;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer totalTimer;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long maxWaitMillis,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxWaitMillis = maxWaitMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("auth.password.hash").tag("operation", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash").tag("operation", "matches").register(meterRegistry);
+        this.totalTimer = Timer.builder("auth.password.hash.total").register(meterRegistry);
+        this.rejectedQueueFull = Counter.builder("auth.password.hash.rejected").tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.rejectedTimeout = Counter.builder("auth.password.hash.rejected").tag("reason", "timeout")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Der ungebremste Encoder – nur für Stellen, die sich selbst um ihre Parallelität kümmern
+     * (z.B. den Bulk-Import auf einem eigenen Pool).
+     */
+    public PasswordEncoder unbounded() {
+        return delegate;
+    }
+
+    private <T> T submit(Timer timer, Callable<T> task) {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejectedQueueFull.increment();
+            log.warn("Passwort-Hashing überlastet (Queue voll), Request wird abgelehnt");
+            throw new ServiceOverloadedException("Zu viele Anmeldungen gleichzeitig. Bitte gleich nochmal versuchen.",
+                    RETRY_AFTER_SECONDS);
+        }
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Entfernt die Aufgabe nur aus der Queue – ein laufender BCrypt-Hash lässt sich nicht abbrechen
+            future.cancel(false);
+            rejectedTimeout.increment();
+            throw new ServiceOverloadedException("Zu viele Anmeldungen gleichzeitig. Bitte gleich nochmal versuchen.",
+                    RETRY_AFTER_SECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Passwort-Hashing unterbrochen", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Passwort-Hashing fehlgeschlagen", e.getCause());
+        } finally {
+            totalTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -1,15 +1,19 @@
 package org.example.javamusicapp.config.auth;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.example.javamusicapp.model.User;
+import org.example.javamusicapp.service.auth.TokenVersionService;
 import org.example.javamusicapp.service.auth.UserService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -25,9 +29,13 @@ import java.io.IOException;
  * 1.  Er fischt sich den `Authorization`-Header aus der Anfrage.
  * 2.  Er checkt, ob da ein "Bearer <token>" drinsteht.
  * 3.  Wenn ja, schnappt er sich den JWT (JSON Web Token) und übergibt ihn an den `JwtUtil`.
- * 4.  Der `JwtUtil` checkt, ob der Token valid (echt und nicht abgelaufen) ist.
- * 5.  Wenn alles passt, holt der Filter die User-Infos aus dem Token (z.B. Username/Email) und
- *     lädt den passenden User aus der Datenbank.
+ * 4.  Der `JwtUtil` parst und checkt den Token in EINEM Schritt, ob er valid (echt und nicht
+ *     abgelaufen) ist, und gibt die verifizierten Claims zurück.
+ * 5.  Wenn alles passt, holt der Filter die User-Infos aus den Claims (z.B. Username/Email) und
+ *     lädt den passenden User über den `PrincipalCache` (DB nur bei Cache-Miss).
+ *     Mit `jwt.stateless-auth.enabled=true` wird der User sogar komplett aus den Claims gebaut – null DB.
+ *     In beiden Modi muss die `tokenVersion` im Token noch aktuell sein (siehe `TokenVersionService`),
+ *     sonst ist der Token revoked.
  * 6.  Am Ende sagt er Spring Security: "Yo, der User ist legit für diesen Request, lass ihn rein."
  *     Damit ist der User für diese eine Anfrage authentifiziert.
  */
@@ -37,12 +45,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserService userService;
+    private final TokenVersionService tokenVersionService;
+    private final boolean statelessAuth;
 
     public JwtAuthenticationFilter(
             JwtUtil jwtUtil,
-            UserService userService) {
+            UserService userService,
+            TokenVersionService tokenVersionService,
+            @Value("${jwt.stateless-auth.enabled:false}") boolean statelessAuth) {
         this.jwtUtil = jwtUtil;
         this.userService = userService;
+        this.tokenVersionService = tokenVersionService;
+        this.statelessAuth = statelessAuth;
     }
 
     @Override
@@ -61,7 +75,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer")) {
             filterChain.doFilter(request, response);
@@ -69,21 +82,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authorizationHeader.substring(7);
-        final String email = jwtUtil.extractSubject(jwt);
-        // 3. Wichtigste Logik (kommt als Nächstes):
-        // TODO: Extrahiere den Username aus dem JWT.
-        // TODO: Prüfe, ob der Token gültig ist.
-        // TODO: Lade den User aus PostgreSQL via UserDetailsService.
-        // TODO: Speichere den User im Spring Security Context.
-
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // Tải UserDetails từ cơ sở dữ liệu PostgreSQL (thông qua UserService)
-            UserDetails userDetails = userService.loadUserByUsername(email);
-            if (jwtUtil.isTokenValid(jwt, userDetails)) {
+        // Einmal parsen + Signatur/Ablauf prüfen, danach nur noch mit den Claims arbeiten
+        final Claims claims = jwtUtil.parseAndValidate(jwt);
+
+        if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            User principal = resolvePrincipal(claims);
+            if (principal != null
+                    && jwtUtil.isTokenValidFor(claims, principal)
+                    && tokenVersionService.isCurrent(principal.getId(), jwtUtil.extractTokenVersion(claims))) {
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        principal,
                         null,
-                        userDetails.getAuthorities());
+                        principal.getAuthorities());
 
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
@@ -95,6 +105,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private User resolvePrincipal(Claims claims) {
+        if (statelessAuth) {
+            // Claims-only: keine DB, kein Cache – alles steht schon im (verifizierten) Token
+            return jwtUtil.principalFromClaims(claims);
+        }
+        final String email = claims.getSubject();
+        // Tải UserDetails qua PrincipalCache (chỉ vào PostgreSQL khi cache miss)
+        try {
+            return (User) userService.loadPrincipalByEmail(email);
+        } catch (UsernameNotFoundException e) {
+            // Token gültig, aber User inzwischen gelöscht -> einfach nicht authentifizieren
+            log.debug("Kein User für Token-Subject {}", email);
+            return null;
+        }
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         return request.getHeader("Authorization");
     }
@@ -1,10 +1,14 @@
 package org.example.javamusicapp.config.auth;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.example.javamusicapp.model.Role;
 import org.example.javamusicapp.model.User;
+import org.example.javamusicapp.model.enums.ERole;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -12,8 +16,9 @@ import org.springframework.stereotype.Component;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 /**
  * 🛠️ **Was geht hier ab?**
@@ -22,20 +27,43 @@ import java.util.function.Function;
  *
  * Ihre Skills:
  * - **Token generieren:** Erstellt einen neuen, signierten JWT für einen User, z.B. direkt nach dem Login.
- *   In den Token packt sie wichtige Infos wie E-Mail (als Subject), User-Rollen und ein Ablaufdatum.
+ *   In den Token packt sie nur das Nötigste: E-Mail (als Subject), User-ID, Username, Rollen (als Namen),
+ *   die `tokenVersion` und ein Ablaufdatum.
  * - **Token validieren:** Checkt, ob ein Token, der mit einem Request reinkommt, echt ist (über die Signatur)
  *   und ob er nicht schon abgelaufen ist.
  * - **Infos auslesen:** Kann alle Claims (die Infos im Token) auslesen, z.B. das Subject (die E-Mail des Users),
  *   um den User in der Datenbank zu finden.
  *
+ * Der HMAC-Key und der `JwtParser` werden genau einmal beim Start gebaut (der Parser ist immutable und
+ * thread-safe). Pro Request wird der Token mit `parseAndValidate()` nur noch EINMAL geparst und verifiziert.
+ * Schon verifizierte Tokens kommen direkt aus dem `VerifiedTokenCache`, ohne erneute HMAC-Prüfung.
+ *
  * Absolut central für die ganze Auth-Logik.
  */
 @Component
 public class JwtUtil {
-    @Value("${jwt.secret}")
-    private String superSecretKey;
-    @Value("${jwt.expiration.ms}")
-    private long jwtExpirationInMs;
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_USERNAME = "userName";
+    static final String CLAIM_ROLES = "roles";
+    static final String CLAIM_TOKEN_VERSION = "tv";
+
+    private final long jwtExpirationInMs;
+    private final Key signingKey;
+    private final JwtParser jwtParser;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    public JwtUtil(
+            @Value("${jwt.secret}") String superSecretKey,
+            @Value("${jwt.expiration.ms}") long jwtExpirationInMs,
+            VerifiedTokenCache verifiedTokenCache) {
+        this.jwtExpirationInMs = jwtExpirationInMs;
+        this.verifiedTokenCache = verifiedTokenCache;
+        // Erzeugt den geheimen Key aus deinem Base64-String (nur einmal!)
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(superSecretKey));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
 
     public String generateToken(UserDetails userDetails) {
         if (!(userDetails instanceof User)) {
@@ -43,68 +71,134 @@ public class JwtUtil {
         }
         User user = (User) userDetails;
 
+        // Kompakt halten: der Token wandert mit JEDEM Request im Header mit
         Map<String, Object> map = new HashMap<>();
-        map.put("userName", user.getUsername()); // Keep username in claims for other purposes
-        map.put("authorities", user.getAuthorities());
-        map.put("roles", user.getAuthorities());
-        map.put("isAccountNonExpired", true);
-        map.put("isAccountNonLocked", true);
-        map.put("isCredentialsNonExpired", true);
-        map.put("isEnabled", true);
+        if (user.getId() != null) {
+            map.put(CLAIM_USER_ID, user.getId().toString());
+        }
+        map.put(CLAIM_USERNAME, user.getUsername()); // Keep username in claims for other purposes
+        map.put(CLAIM_ROLES, user.getRoles().stream().map(role -> role.getName().name()).toList());
+        map.put(CLAIM_TOKEN_VERSION, user.getTokenVersion());
 
         return Jwts.builder()
                 .setClaims(map)
                 .setSubject(user.getEmail()) // Use email as the subject
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationInMs))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String extractSubject(String token) {
-        return extractClaims(token, Claims::getSubject);
-    }
-
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        if (!(userDetails instanceof User)) {
-            return false;
+    /**
+     * Parst den Token genau einmal: Signatur, Format und Ablaufdatum werden in einem Rutsch geprüft.
+     * Ist der Token schon verifiziert im Cache, wird gar nicht mehr geparst.
+     *
+     * @param token Der rohe JWT (ohne "Bearer ").
+     * @return Die verifizierten Claims oder {@code null}, wenn der Token ungültig, abgelaufen oder gesperrt ist.
+     */
+    public Claims parseAndValidate(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
         }
-        try {
-            final String subject = extractSubject(token);
-            // Subject is now email
-            return (subject.equals(((User) userDetails).getEmail()) && !isTokenExpired(token));
+        String digest = verifiedTokenCache.digest(token);
+        if (verifiedTokenCache.isRevoked(digest)) {
+            return null;
         }
-        catch (Exception e) {
-            return false;
+        Claims cached = verifiedTokenCache.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            if (claims.getSubject() == null) {
+                return null;
+            }
+            verifiedTokenCache.put(digest, claims);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
         }
     }
 
-    private boolean isTokenExpired(String token) {
-        final Date expiration = extractExpiration(token);
-        return expiration.before(new Date());
+    /**
+     * Sperrt einen Access Token bis zu seinem Ablauf (Logout).
+     */
+    public void revoke(String token, Claims claims) {
+        verifiedTokenCache.revoke(verifiedTokenCache.digest(token), claims.getExpiration());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaims(token, Claims::getExpiration);
+    public String extractSubject(String token) {
+        Claims claims = parseAndValidate(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        Claims claims = parseAndValidate(token);
+        return claims != null && isTokenValidFor(claims, userDetails);
+    }
+
+    public UUID extractUserId(Claims claims) {
+        String uid = claims.get(CLAIM_USER_ID, String.class);
+        if (uid == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(uid);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
-    // Helper functions
-    private <T> T extractClaims(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Alte Tokens (vor Einführung von `tv`) zählen als Version 0.
+     */
+    public int extractTokenVersion(Claims claims) {
+        Number tv = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+        return tv != null ? tv.intValue() : 0;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Baut für den claims-only Modus einen losgelösten `User` nur aus den Claims – ohne DB.
+     * Enthält ID, Username, E-Mail und Rollen; kein Passwort, keine Profil-Felder.
+     *
+     * @return Der Principal oder {@code null}, wenn dem Token dafür Claims fehlen (z.B. alte Tokens).
+     */
+    public User principalFromClaims(Claims claims) {
+        UUID userId = extractUserId(claims);
+        String username = claims.get(CLAIM_USERNAME, String.class);
+        Object roles = claims.get(CLAIM_ROLES);
+        if (userId == null || username == null || !(roles instanceof List<?> roleNames)) {
+            return null;
+        }
+        User user = new User();
+        user.setId(userId);
+        user.setUsername(username);
+        user.setEmail(claims.getSubject());
+        user.setTokenVersion(extractTokenVersion(claims));
+        for (Object roleName : roleNames) {
+            if (!(roleName instanceof String name)) {
+                return null;
+            }
+            Role role = new Role();
+            try {
+                role.setName(ERole.valueOf(name));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            user.getRoles().add(role);
+        }
+        return user;
     }
 
-    // Erzeugt den geheimen Key aus deinem Base64-String
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(superSecretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Prüft bereits verifizierte Claims gegen den geladenen User, ohne den Token erneut zu parsen.
+     * Das Ablaufdatum wurde schon von {@link #parseAndValidate(String)} gecheckt.
+     */
+    public boolean isTokenValidFor(Claims claims, UserDetails userDetails) {
+        if (!(userDetails instanceof User)) {
+            return false;
+        }
+        // Subject is now email
+        return claims.getSubject().equals(((User) userDetails).getEmail());
     }
 }
@@ -1,9 +1,10 @@
 package org.example.javamusicapp.config.auth;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
  * 🔒 **Was geht hier ab?**
@@ -16,12 +17,21 @@ import org.springframework.security.crypto.password.PasswordEncoder;
  *
  * Wenn ein User sich einloggt, wird sein eingegebenes Passwort wieder mit BCrypt gehasht und dann mit dem
  * Hash in der DB verglichen. Maximale Security, so muss das sein.
+ *
+ * Damit Login-Wellen nicht alle Cores fressen, läuft BCrypt im `BoundedPasswordEncoder` auf einem
+ * begrenzten Pool (`app.auth.hashing.*`). Default: die Hälfte der Cores, der Rest bleibt für die API.
  */
 @Configuration
 public class PasswordEncoderConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${app.auth.hashing.threads:0}") int threads,
+            @Value("${app.auth.hashing.queue-capacity:32}") int queueCapacity,
+            @Value("${app.auth.hashing.max-wait-ms:3000}") long maxWaitMillis) {
+        int hashThreads = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), hashThreads, queueCapacity, maxWaitMillis,
+                meterRegistry);
     }
 }
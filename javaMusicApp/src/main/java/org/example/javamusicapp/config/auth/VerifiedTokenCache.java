@@ -0,0 +1,236 @@
+package org.example.javamusicapp.config.auth;
+
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.example.javamusicapp.config.RedisCircuitBreaker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 🧠 **Was geht hier ab?**
+ * Unser SPA schickt denselben Access Token dutzende Male pro Minute. Statt jedes Mal die HMAC-Signatur
+ * neu zu prüfen und das JSON zu parsen, merkt sich dieser Cache: "Token X ist schon verifiziert, hier
+ * sind seine Claims."
+ *
+ * Die Regeln:
+ * - **Key ist ein SHA-256-Digest** des Tokens, nicht der Token selbst. So liegen keine rohen Tokens im Heap.
+ * - **Nie länger als `exp`**: Ein Eintrag fliegt spätestens raus, wenn der Token abläuft.
+ * - **Begrenzt**: Maximal `jwt.cache.max-entries` Einträge. Ist der Cache voll, wird erst aufgeräumt und
+ *   wenn immer noch kein Platz ist, wird einfach nicht gecached (dann wird halt normal verifiziert).
+ * - **Revoke**: Beim Logout landet der Digest bis zum Ablauf des Tokens in Redis (`jwt:revoked:<digest>`, TTL =
+ *   Restlaufzeit), damit der Token auf JEDER Instanz gesperrt ist. Die eigene Instanz merkt sich die Sperre
+ *   zusätzlich lokal und sperrt sofort. Andere Instanzen fragen Redis pro gecachtem Token höchstens alle
+ *   `jwt.cache.revocation-check-ms` (Standard 2s) – genau wie bei der Token-Version. Ist Redis weg (Breaker offen),
+ *   zählt nur noch die lokale Sperrliste.
+ * - `invalidateSubject()` ist KEINE Sperre: Es wirft nur die gecachten Claims eines Users raus, der nächste Request
+ *   verifiziert den Token neu und cached ihn wieder. Ungültig werden alte Tokens über die `tokenVersion`.
+ *
+ * Mit `jwt.cache.max-entries=0` ist der Cache komplett aus.
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 ist nicht verfügbar", e);
+        }
+    });
+
+    private static final String REDIS_PREFIX = "jwt:revoked:";
+
+    private final int maxEntries;
+    private final long revocationCheckMillis;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final Map<String, Entry> verified = new ConcurrentHashMap<>();
+    // digest -> Ablaufzeitpunkt des gesperrten Tokens (epoch millis), nur die Sperren dieser Instanz
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(
+            @Value("${jwt.cache.max-entries:10000}") int maxEntries,
+            @Value("${jwt.cache.revocation-check-ms:2000}") long revocationCheckMillis,
+            @Autowired(required = false) StringRedisTemplate redisTemplate,
+            RedisCircuitBreaker redisCircuitBreaker) {
+        this.maxEntries = maxEntries;
+        this.revocationCheckMillis = revocationCheckMillis;
+        this.redisTemplate = redisTemplate;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+    }
+
+    public String digest(String token) {
+        MessageDigest md = SHA_256.get();
+        md.reset();
+        byte[] hash = md.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * @return Die gecachten Claims oder {@code null}, wenn nichts (mehr) Gültiges im Cache liegt.
+     */
+    public Claims get(String digest) {
+        Entry entry = verified.get(digest);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            verified.remove(digest, entry);
+            return null;
+        }
+        return entry.claims;
+    }
+
+    public void put(String digest, Claims claims) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            // Ohne exp wissen wir nicht, wie lange wir cachen dürfen -> lieber gar nicht
+            return;
+        }
+        if (verified.size() >= maxEntries) {
+            purgeExpired();
+            if (verified.size() >= maxEntries) {
+                return;
+            }
+        }
+        verified.put(digest, new Entry(claims, expiration.getTime()));
+    }
+
+    public boolean isRevoked(String digest) {
+        long now = System.currentTimeMillis();
+        if (isLocallyRevoked(digest, now)) {
+            return true;
+        }
+        if (redisTemplate == null) {
+            return false;
+        }
+        // Gecachter Token, vor Kurzem erst in Redis nachgeschaut -> nicht nochmal fragen
+        Entry entry = verified.get(digest);
+        if (entry != null && entry.revocationCheckedUntil > now) {
+            return false;
+        }
+        if (!isRevokedInRedis(digest)) {
+            if (entry != null) {
+                entry.revocationCheckedUntil = now + revocationCheckMillis;
+            }
+            return false;
+        }
+        verified.remove(digest);
+        if (entry != null) {
+            rememberRevoked(digest, entry.expiresAtMillis, now);
+        }
+        return true;
+    }
+
+    /**
+     * Sperrt einen Token (z.B. beim Logout) bis zu seinem Ablauf auf allen Instanzen und entfernt ihn aus dem Cache.
+     */
+    public void revoke(String digest, Date expiration) {
+        verified.remove(digest);
+        long now = System.currentTimeMillis();
+        if (expiration == null || expiration.getTime() <= now) {
+            return;
+        }
+        rememberRevoked(digest, expiration.getTime(), now);
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisCircuitBreaker.execute(() -> {
+                redisTemplate.opsForValue().set(REDIS_PREFIX + digest, "1",
+                        Duration.ofMillis(expiration.getTime() - now));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Token-Sperre konnte nicht in Redis geschrieben werden, gilt nur auf dieser Instanz: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Wirft alle verifizierten Claims eines Users (Subject = E-Mail) aus dem Cache. Keine Sperre – der Token
+     * wird beim nächsten Request einfach neu verifiziert.
+     */
+    public void invalidateSubject(String subject) {
+        if (subject == null || verified.isEmpty()) {
+            return;
+        }
+        verified.values().removeIf(entry -> subject.equals(entry.claims.getSubject()));
+        log.debug("Verifizierte Tokens für Subject '{}' aus dem Cache entfernt", subject);
+    }
+
+    public int size() {
+        return verified.size();
+    }
+
+    private boolean isLocallyRevoked(String digest, long now) {
+        if (revoked.isEmpty()) {
+            return false;
+        }
+        Long until = revoked.get(digest);
+        if (until == null) {
+            return false;
+        }
+        if (until <= now) {
+            revoked.remove(digest, until);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isRevokedInRedis(String digest) {
+        try {
+            // Bei offenem Breaker sofort weiter, ohne auf den Redis-Timeout zu warten
+            return Boolean.TRUE.equals(redisCircuitBreaker.execute(() -> redisTemplate.hasKey(REDIS_PREFIX + digest)));
+        } catch (Exception e) {
+            log.debug("Token-Sperre: Redis nicht erreichbar, nur lokale Sperrliste: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void rememberRevoked(String digest, long untilMillis, long now) {
+        int limit = Math.max(maxEntries, 1);
+        if (revoked.size() >= limit) {
+            revoked.values().removeIf(until -> until <= now);
+        }
+        if (revoked.size() >= limit) {
+            // Immer noch voll: die Sperre opfern, deren Token als Erstes abläuft (steht ja auch in Redis)
+            revoked.entrySet().stream()
+                    .min(Map.Entry.comparingByValue())
+                    .ifPresent(soonest -> revoked.remove(soonest.getKey(), soonest.getValue()));
+        }
+        revoked.put(digest, untilMillis);
+    }
+
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        verified.values().removeIf(entry -> entry.expiresAtMillis <= now);
+    }
+
+    private static class Entry {
+        final Claims claims;
+        final long expiresAtMillis;
+        // Bis wann das "nicht gesperrt" aus Redis gilt
+        volatile long revocationCheckedUntil;
+
+        Entry(Claims claims, long expiresAtMillis) {
+            this.claims = claims;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
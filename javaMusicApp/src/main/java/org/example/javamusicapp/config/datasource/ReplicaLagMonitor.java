@@ -0,0 +1,88 @@
+package org.example.javamusicapp.config.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * ⏱️ **Was geht hier ab?**
+ * Der Replica-Lag-Wächter. Fragt regelmäßig (`app.datasource.replica.lag-check-interval-ms`) bei der Replica
+ * nach, wie weit sie hinter dem Primary hängt. Liegt der Lag über `app.datasource.replica.max-lag-ms` oder ist
+ * die Replica gar nicht erreichbar, schickt der `ReplicaRoutingDataSource` auch Lese-Transaktionen an den Primary,
+ * bis sie wieder aufgeholt hat.
+ *
+ * Bis zum ersten erfolgreichen Check gilt die Replica als NICHT nutzbar – lieber ein paar Reads zu viel auf dem
+ * Primary als veraltete Daten. Ist die Replica-URL gar kein Standby (z.B. lokal eine zweite normale DB), zählt
+ * der Lag als 0. Metrik: `db.replica.lag` in Millisekunden (-1 = nicht erreichbar bzw. repliziert nicht).
+ *
+ * Ein Standby ohne laufenden WAL-Receiver (Verbindung zum Primary abgerissen) gilt als NICHT nutzbar: Dann stehen
+ * empfangene und eingespielte LSN auf demselben alten Stand und sähen sonst wie "kein Lag" aus – stundenlang.
+ * Den Status (`streaming`) darf nur sehen, wer `pg_read_all_stats` (bzw. `pg_monitor`) hat. Ohne das Recht
+ * zählt nur, dass überhaupt ein Receiver läuft.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // null = Standby ohne streamenden WAL-Receiver, also nicht nutzbar.
+    // Holt ein streamender Standby gerade nichts nach (empfangen == eingespielt), ist er aktuell, egal wie alt die
+    // letzte Transaktion ist. Sonst zählt der Abstand zur zuletzt eingespielten Transaktion.
+    private static final String LAG_SQL = "select case"
+            + " when not pg_is_in_recovery() then 0"
+            + " when not exists (select 1 from pg_stat_wal_receiver"
+            + " where coalesce(status, 'streaming') = 'streaming') then null"
+            + " when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+            + " else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private volatile long lagMillis = -1;
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, long maxLagMillis, MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.replica.setQueryTimeout(2);
+        this.maxLagMillis = maxLagMillis;
+        Gauge.builder("db.replica.lag", this, monitor -> monitor.lagMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}")
+    public void pruefeLag() {
+        boolean usable;
+        try {
+            Double lagSeconds = replica.queryForObject(LAG_SQL, Double.class);
+            if (lagSeconds == null) {
+                lagMillis = -1;
+                usable = false;
+            } else {
+                lagMillis = Math.round(lagSeconds * 1000);
+                usable = lagMillis <= maxLagMillis;
+            }
+        } catch (DataAccessException e) {
+            lagMillis = -1;
+            usable = false;
+            log.debug("Replica-Lag-Check fehlgeschlagen: {}", e.getMessage());
+        }
+
+        // Nur bei Zustandswechseln loggen, sonst spammt das jede Sekunde
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("Read-Replica wieder aktuell (Lag {} ms), Lese-Transaktionen gehen auf die Replica", lagMillis);
+            } else {
+                log.warn("Read-Replica hängt hinterher oder ist nicht erreichbar (Lag {} ms, max {} ms), "
+                        + "Lese-Transaktionen gehen auf den Primary", lagMillis, maxLagMillis);
+            }
+            replicaUsable = usable;
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+}
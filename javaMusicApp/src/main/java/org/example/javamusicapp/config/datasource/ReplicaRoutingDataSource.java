@@ -0,0 +1,52 @@
+package org.example.javamusicapp.config.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * 🔀 **Was geht hier ab?**
+ * Entscheidet pro Connection, ob sie vom Primary oder vom Read-Replica-Pool kommt:
+ * - Läuft gerade eine `@Transactional(readOnly = true)`-Transaktion, die eine Service-Methode selbst aufgemacht hat,
+ *   UND der `ReplicaLagMonitor` meldet die Replica als aktuell genug, geht's auf die Replica.
+ * - Alles andere (Schreib-Transaktionen, Lazy-Loading ohne Transaktion, Flyway, Replica hängt hinterher) landet
+ *   auf dem Primary. Auch die Lese-Transaktionen, die Spring Data an seinen geerbten Methoden (`findById`,
+ *   `count` …) selbst aufmacht: Über die laufen die Cache-Loader, und ein veralteter Stand von der Replica bliebe
+ *   dort für die ganze TTL liegen.
+ *
+ * Wichtig: Der Read-Only-Flag steht erst NACH dem Transaktionsstart fest, deshalb steckt diese Klasse immer in
+ * einer `LazyConnectionDataSourceProxy` (siehe `ReadReplicaConfig`).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    // Transaktionsname = "<Klasse>.<Methode>" der @Transactional-Methode, die die Transaktion gestartet hat
+    static final String SERVICE_PREFIX = "org.example.javamusicapp.service.";
+
+    enum Ziel {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Ziel.PRIMARY, primary, Ziel.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && istServiceTransaktion()
+                && lagMonitor.isReplicaUsable()) {
+            return Ziel.REPLICA;
+        }
+        return Ziel.PRIMARY;
+    }
+
+    private static boolean istServiceTransaktion() {
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        return name != null && name.startsWith(SERVICE_PREFIX);
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.javamusicapp.config.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 🕵️ **Was geht hier ab?**
+ * Findet die echte Client-IP. Vorher wurde blind der erste Eintrag aus `X-Forwarded-For` genommen –
+ * jeder konnte sich also per Header eine neue IP (und damit ein frisches Rate-Limit) ausdenken.
+ *
+ * Jetzt gilt: `X-Forwarded-For` wird NUR ausgewertet, wenn der direkte Peer ein vertrauenswürdiger Proxy ist
+ * (`app.ratelimit.trusted-proxies`, kommagetrennt, IPs oder CIDRs wie `10.0.0.0/8`). Dann wird die Kette von
+ * rechts nach links gelaufen und die erste IP genommen, die KEIN eigener Proxy ist. Alles links davon hat der
+ * Client selbst geschrieben und zählt nicht.
+ *
+ * Ohne konfigurierte Proxies zählt immer `getRemoteAddr()`.
+ */
+@Slf4j
+@Component
+public class ClientIpResolver {
+
+    private final List<Cidr> trustedProxies;
+
+    public ClientIpResolver(@Value("${app.ratelimit.trusted-proxies:}") String trustedProxies) {
+        List<Cidr> parsed = new ArrayList<>();
+        Arrays.stream(trustedProxies.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .forEach(s -> {
+                    try {
+                        parsed.add(Cidr.parse(s));
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Ungültiger Eintrag in app.ratelimit.trusted-proxies ignoriert: {}", s);
+                    }
+                });
+        this.trustedProxies = List.copyOf(parsed);
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (trustedProxies.isEmpty() || !isTrusted(remoteAddr)) {
+            return remoteAddr;
+        }
+        String xf = request.getHeader("X-Forwarded-For");
+        if (xf == null || xf.isBlank()) {
+            return remoteAddr;
+        }
+        String[] hops = xf.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                continue;
+            }
+            if (!isTrusted(hop)) {
+                return hop;
+            }
+        }
+        // Die ganze Kette besteht aus eigenen Proxies
+        return hops[0].trim();
+    }
+
+    private boolean isTrusted(String ip) {
+        byte[] address = Cidr.toBytes(ip);
+        if (address == null) {
+            return false;
+        }
+        for (Cidr cidr : trustedProxies) {
+            if (cidr.matches(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Cidr {
+        final byte[] network;
+        final int prefix;
+
+        Cidr(byte[] network, int prefix) {
+            this.network = network;
+            this.prefix = prefix;
+        }
+
+        static Cidr parse(String value) {
+            String[] parts = value.split("/", 2);
+            byte[] network = toBytes(parts[0].trim());
+            if (network == null) {
+                throw new IllegalArgumentException(value);
+            }
+            int prefix = network.length * 8;
+            if (parts.length == 2) {
+                try {
+                    prefix = Integer.parseInt(parts[1].trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(value);
+                }
+                if (prefix < 0 || prefix > network.length * 8) {
+                    throw new IllegalArgumentException(value);
+                }
+            }
+            return new Cidr(network, prefix);
+        }
+
+        boolean matches(byte[] address) {
+            if (address.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefix / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (address[i] != network[i]) {
+                    return false;
+                }
+            }
+            int restBits = prefix % 8;
+            if (restBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - restBits);
+            return (address[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+
+        // Nur IP-Literale – niemals DNS für Werte aus einem Header
+        static byte[] toBytes(String ip) {
+            if (ip == null || ip.isEmpty()
+                    || !(ip.indexOf(':') >= 0 || ip.chars().allMatch(c -> c == '.' || Character.isDigit(c)))) {
+                return null;
+            }
+            if (ip.indexOf(':') >= 0 && !ip.chars().allMatch(c -> c == ':' || c == '.' || Character.digit(c, 16) >= 0)) {
+                return null;
+            }
+            try {
+                return InetAddress.getByName(ip).getAddress();
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+    }
+}
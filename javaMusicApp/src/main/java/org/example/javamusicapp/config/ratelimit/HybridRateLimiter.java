@@ -0,0 +1,272 @@
+package org.example.javamusicapp.config.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.javamusicapp.config.RedisCircuitBreaker;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🧮 **Was geht hier ab?**
+ * Auch mit dem Ein-Call-Lua-Script kostet jeder API-Request einen Redis-Round-Trip. Im Hybrid-Modus
+ * (`app.ratelimit.hybrid.enabled=true`) holt sich jede Instanz pro Key ein kleines Kontingent ("Lease",
+ * `app.ratelimit.hybrid.lease-size` Tokens) aus demselben GCRA-Bucket in Redis und lässt Requests lokal
+ * dagegen laufen:
+ * - **Lease holen**: Ein Lua-Call reserviert bis zu N Tokens auf einmal. Ist das lokale Kontingent unter
+ *   der Hälfte, wird im Hintergrund schon nachgeladen – der Request-Thread wartet nur, wenn es ganz leer ist.
+ * - **Zurückgeben**: Leases laufen nach `app.ratelimit.hybrid.lease-ttl-ms` ab. Ein Hintergrund-Job gibt
+ *   ungenutzte Tokens gesammelt an Redis zurück, damit andere Instanzen sie nutzen können.
+ *
+ * Redis-Calls: statt einem pro Request nur noch ca. einer pro Lease und Key.
+ * Fehlergrenze: Da Tokens VOR der Nutzung reserviert werden, wird das globale Limit nie überschritten.
+ * Schlimmstenfalls ist es um bis zu (Instanzen × Lease-Größe) Tokens zu streng, bis die Leases ablaufen.
+ *
+ * Nur die echten Redis-Calls (Lease holen – auch im Hintergrund – und Tokens zurückgeben) laufen durch den
+ * `RedisCircuitBreaker`. Requests, die lokal aus der Lease bedient werden, zählen für den Breaker nicht – sonst
+ * würde jeder lokale Treffer ihn wieder schließen, obwohl Redis gerade weg ist. Bei offenem Breaker wird eine
+ * vorhandene Lease noch aufgebraucht (die Tokens sind ja schon reserviert), danach kommt `RedisUnavailableException`.
+ */
+@Slf4j
+public class HybridRateLimiter implements RateLimiter, AutoCloseable {
+
+    // KEYS[1] = TAT-Key; ARGV = emissionMs, burst, gewünschte Tokens
+    // Rückgabe: {gewährt, danach verbleibend, resetMs, retryAfterMs}
+    private static final DefaultRedisScript<List> LEASE_SCRIPT = new DefaultRedisScript<>("""
+            local emission = tonumber(ARGV[1])
+            local burst = tonumber(ARGV[2])
+            local want = tonumber(ARGV[3])
+            local t = redis.call('TIME')
+            local now = t[1] * 1000 + math.floor(t[2] / 1000)
+            local tat = tonumber(redis.call('GET', KEYS[1])) or now
+            if tat < now then
+              tat = now
+            end
+            local available = math.floor((now - (tat - emission * burst)) / emission)
+            if available > burst then
+              available = burst
+            end
+            local grant = math.max(0, math.min(want, available))
+            if grant > 0 then
+              tat = tat + emission * grant
+              redis.call('SET', KEYS[1], tat, 'PX', math.max(math.ceil(tat - now), 1))
+            end
+            local retry = 0
+            if grant == 0 then
+              retry = math.ceil(tat + emission - emission * burst - now)
+            end
+            return {grant, available - grant, math.ceil(tat - now), retry}
+            """, List.class);
+
+    // KEYS[1] = TAT-Key; ARGV = emissionMs, zurückgegebene Tokens
+    private static final DefaultRedisScript<Long> RETURN_SCRIPT = new DefaultRedisScript<>("""
+            local tat = tonumber(redis.call('GET', KEYS[1]))
+            if not tat then
+              return 0
+            end
+            local t = redis.call('TIME')
+            local now = t[1] * 1000 + math.floor(t[2] / 1000)
+            local newTat = math.max(now, tat - tonumber(ARGV[1]) * tonumber(ARGV[2]))
+            if newTat <= now then
+              redis.call('DEL', KEYS[1])
+            else
+              redis.call('SET', KEYS[1], newTat, 'PX', math.max(math.ceil(newTat - now), 1))
+            end
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final long limit;
+    private final double emissionMillis;
+    private final long leaseSize;
+    private final long leaseTtlMillis;
+    private final int maxEntries;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService background;
+
+    public HybridRateLimiter(StringRedisTemplate redisTemplate, RedisCircuitBreaker circuitBreaker, long limit,
+            long windowSeconds, long leaseSize, long leaseTtlMillis, int maxEntries) {
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.limit = limit;
+        this.emissionMillis = windowSeconds * 1000d / limit;
+        this.leaseSize = Math.max(1, Math.min(leaseSize, limit));
+        this.leaseTtlMillis = leaseTtlMillis;
+        this.maxEntries = maxEntries;
+        this.background = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ratelimit-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.background.scheduleWithFixedDelay(this::flushExpired, leaseTtlMillis, leaseTtlMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String key, long cost) {
+        while (true) {
+            long now = System.currentTimeMillis();
+            Lease lease = leases.get(key);
+            if (lease == null) {
+                if (leases.size() >= maxEntries) {
+                    // Keine Lease mehr im Speicher: genau die Kosten direkt in Redis reservieren
+                    return direct(key, cost);
+                }
+                lease = leases.computeIfAbsent(key, k -> new Lease());
+            }
+
+            synchronized (lease) {
+                if (lease.removed) {
+                    // Wurde gerade vom Hintergrund-Job eingesammelt, mit einer frischen Lease nochmal
+                    continue;
+                }
+                if (lease.tokens < cost) {
+                    LeaseResult result = lease(key, Math.max(leaseSize, cost));
+                    lease.apply(result, now, leaseTtlMillis);
+                    if (lease.tokens < cost) {
+                        return new RateLimitDecision(false, limit, lease.tokens + lease.globalRemaining,
+                                result.resetMillis, Math.max(1, result.retryAfterMillis));
+                    }
+                } else if (lease.tokens - cost < leaseSize / 2 && !lease.refilling) {
+                    prefetch(key, lease);
+                }
+                lease.tokens -= cost;
+                return new RateLimitDecision(true, limit, lease.tokens + lease.globalRemaining,
+                        Math.max(0, lease.resetMillis - (now - lease.fetchedAt)), 0);
+            }
+        }
+    }
+
+    private RateLimitDecision direct(String key, long cost) {
+        LeaseResult result = lease(key, cost);
+        if (result.granted < cost) {
+            if (result.granted > 0) {
+                giveBackAsync(key, result.granted);
+            }
+            return new RateLimitDecision(false, limit, result.granted + result.remaining, result.resetMillis,
+                    Math.max(1, result.retryAfterMillis));
+        }
+        return new RateLimitDecision(true, limit, result.remaining, result.resetMillis, 0);
+    }
+
+    private void prefetch(String key, Lease lease) {
+        lease.refilling = true;
+        try {
+            background.execute(() -> {
+                try {
+                    LeaseResult result = lease(key, leaseSize);
+                    synchronized (lease) {
+                        lease.apply(result, System.currentTimeMillis(), leaseTtlMillis);
+                    }
+                } catch (Exception e) {
+                    log.debug("Rate-Limit: Lease-Prefetch fehlgeschlagen: {}", e.getMessage());
+                } finally {
+                    synchronized (lease) {
+                        lease.refilling = false;
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            lease.refilling = false;
+        }
+    }
+
+    private LeaseResult lease(String key, long want) {
+        List<?> result = circuitBreaker.execute(() -> redisTemplate.execute(LEASE_SCRIPT,
+                List.of(RedisRateLimiter.KEY_PREFIX + key),
+                Double.toString(emissionMillis), Long.toString(limit), Long.toString(want)));
+        if (result == null || result.size() < 4) {
+            throw new IllegalStateException("Unerwartete Antwort vom Lease-Script: " + result);
+        }
+        return new LeaseResult(toLong(result.get(0)), toLong(result.get(1)), toLong(result.get(2)),
+                toLong(result.get(3)));
+    }
+
+    // Läuft im Hintergrund: abgelaufene Leases einsammeln und ungenutzte Tokens zurückgeben
+    private void flushExpired() {
+        long now = System.currentTimeMillis();
+        leases.forEach((key, lease) -> {
+            long unused;
+            synchronized (lease) {
+                if (lease.expiresAt > now || lease.refilling) {
+                    return;
+                }
+                unused = lease.tokens;
+                lease.tokens = 0;
+                lease.removed = true;
+                leases.remove(key, lease);
+            }
+            if (unused > 0) {
+                giveBack(key, unused);
+            }
+        });
+    }
+
+    private void giveBackAsync(String key, long tokens) {
+        try {
+            background.execute(() -> giveBack(key, tokens));
+        } catch (RejectedExecutionException e) {
+            // Beim Shutdown verfallen die Tokens einfach mit dem Ablauf des Keys
+        }
+    }
+
+    private void giveBack(String key, long tokens) {
+        try {
+            circuitBreaker.execute(() -> redisTemplate.execute(RETURN_SCRIPT,
+                    List.of(RedisRateLimiter.KEY_PREFIX + key),
+                    Double.toString(emissionMillis), Long.toString(tokens)));
+        } catch (Exception e) {
+            log.debug("Rate-Limit: Rückgabe von {} Tokens fehlgeschlagen: {}", tokens, e.getMessage());
+        }
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
+
+    @Override
+    public void close() {
+        background.shutdownNow();
+    }
+
+    private static class Lease {
+        long tokens;
+        long expiresAt;
+        long globalRemaining;
+        long resetMillis;
+        long fetchedAt;
+        boolean refilling;
+        boolean removed;
+
+        void apply(LeaseResult result, long now, long ttlMillis) {
+            tokens += result.granted;
+            globalRemaining = result.remaining;
+            resetMillis = result.resetMillis;
+            fetchedAt = now;
+            if (result.granted > 0) {
+                expiresAt = now + ttlMillis;
+            }
+        }
+    }
+
+    private static class LeaseResult {
+        final long granted;
+        final long remaining;
+        final long resetMillis;
+        final long retryAfterMillis;
+
+        LeaseResult(long granted, long remaining, long resetMillis, long retryAfterMillis) {
+            this.granted = granted;
+            this.remaining = remaining;
+            this.resetMillis = resetMillis;
+            this.retryAfterMillis = retryAfterMillis;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.javamusicapp.config.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🧊 **Was geht hier ab?**
+ * Der lokale Rate-Limiter für alles, was nicht (oder gerade nicht) über Redis läuft. Die alte
+ * `ConcurrentHashMap` wurde nie aufgeräumt – jede IP (auch jede ausgedachte aus `X-Forwarded-For`) blieb
+ * für immer im Heap.
+ *
+ * Jetzt:
+ * - **Gleicher Algorithmus wie in Redis** (GCRA): pro Key nur ein `long` (theoretical arrival time).
+ * - **Gestreift**: Die Keys verteilen sich auf mehrere Stripes mit eigenem Lock, damit sich Requests nicht
+ *   gegenseitig ausbremsen.
+ * - **Hart begrenzt**: Jeder Stripe ist eine LRU-Map mit fester Obergrenze (`app.ratelimit.local.max-entries`
+ *   insgesamt). Ist sie voll, fliegt der am längsten nicht benutzte Key raus.
+ * - **Clock-Sweeper**: Alle `app.ratelimit.local.sweep-interval-ms` räumt der nächste Request einen Stripe auf
+ *   (Zeiger wandert reihum). Ein Bucket, der wieder voll ist, ist gleichwertig zu "kein Bucket" und wird gelöscht.
+ *
+ * Metriken: `ratelimit.local.entries` (Gauge) und `ratelimit.local.evictions` mit Tag `reason`
+ * (expired/capacity).
+ */
+@Component
+public class LocalRateLimiter implements RateLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long limit;
+    private final double emissionMillis;
+    private final long sweepIntervalMillis;
+    private final AtomicLong nextSweepAt = new AtomicLong();
+    private final AtomicInteger sweepHand = new AtomicInteger();
+    private final Counter evictedExpired;
+    private final Counter evictedCapacity;
+
+    public LocalRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${app.ratelimit.limit:100}") long limit,
+            @Value("${app.ratelimit.window-seconds:60}") long windowSeconds,
+            @Value("${app.ratelimit.local.max-entries:100000}") int maxEntries,
+            @Value("${app.ratelimit.local.sweep-interval-ms:1000}") long sweepIntervalMillis) {
+        this.limit = limit;
+        this.emissionMillis = windowSeconds * 1000d / limit;
+        this.sweepIntervalMillis = sweepIntervalMillis;
+        this.evictedExpired = Counter.builder("ratelimit.local.evictions").tag("reason", "expired")
+                .register(meterRegistry);
+        this.evictedCapacity = Counter.builder("ratelimit.local.evictions").tag("reason", "capacity")
+                .register(meterRegistry);
+        int perStripe = Math.max(1, maxEntries / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe, evictedCapacity);
+        }
+        Gauge.builder("ratelimit.local.entries", this, LocalRateLimiter::size).register(meterRegistry);
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String key, long cost) {
+        long now = System.currentTimeMillis();
+        maybeSweep(now);
+        Stripe stripe = stripes[Math.floorMod(key.hashCode(), STRIPES)];
+        synchronized (stripe) {
+            Long stored = stripe.buckets.get(key);
+            double tat = stored != null ? Math.max(stored, now) : now;
+            double newTat = tat + emissionMillis * cost;
+            double allowAt = newTat - emissionMillis * limit;
+            if (allowAt > now) {
+                long remaining = Math.max(0, (long) Math.floor((now - (tat - emissionMillis * limit)) / emissionMillis));
+                return new RateLimitDecision(false, limit, remaining, (long) Math.ceil(tat - now),
+                        (long) Math.ceil(allowAt - now));
+            }
+            stripe.buckets.put(key, (long) Math.ceil(newTat));
+            return new RateLimitDecision(true, limit, (long) Math.floor((now - allowAt) / emissionMillis),
+                    (long) Math.ceil(newTat - now), 0);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    private void maybeSweep(long now) {
+        long due = nextSweepAt.get();
+        if (now < due || !nextSweepAt.compareAndSet(due, now + sweepIntervalMillis)) {
+            return;
+        }
+        Stripe stripe = stripes[Math.floorMod(sweepHand.getAndIncrement(), STRIPES)];
+        int removed = 0;
+        synchronized (stripe) {
+            Iterator<Long> it = stripe.buckets.values().iterator();
+            while (it.hasNext()) {
+                // TAT in der Vergangenheit = Bucket wieder voll
+                if (it.next() <= now) {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            evictedExpired.increment(removed);
+        }
+    }
+
+    private static class Stripe {
+        final LinkedHashMap<String, Long> buckets;
+
+        Stripe(int maxEntries, Counter evictedCapacity) {
+            // accessOrder = true -> LRU
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    if (size() > maxEntries) {
+                        evictedCapacity.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.javamusicapp.config.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+
+/**
+ * ⚖️ **Was geht hier ab?**
+ * Nicht jeder Request ist gleich teuer: `GET /api/user/profile` kommt (dank Caches) ohne DB aus,
+ * `POST /api/nachweise` rendert ein PDF und verschickt eine Mail. Deshalb kostet jeder Request je nach
+ * Routen-Klasse unterschiedlich viele Tokens aus dem Rate-Limit-Bucket:
+ * - **bulk** (`app.ratelimit.cost.bulk`): Bulk-Import, "alles löschen"
+ * - **pdf** (`app.ratelimit.cost.pdf`): Nachweis anlegen/ändern (rendert PDF) und PDF-Download
+ * - **write** (`app.ratelimit.cost.write`): alle anderen POST/PUT/PATCH/DELETE
+ * - **read** (`app.ratelimit.cost.read`): GET & Co.
+ *
+ * So bremsen wir die teuren Pfade, ohne billige Reads zu drosseln.
+ */
+@Component
+public class RateLimitCostResolver {
+
+    private static final AntPathMatcher MATCHER = new AntPathMatcher();
+
+    private final List<Route> routes;
+    private final long writeCost;
+    private final long readCost;
+
+    public RateLimitCostResolver(
+            @Value("${app.ratelimit.cost.bulk:25}") long bulkCost,
+            @Value("${app.ratelimit.cost.pdf:10}") long pdfCost,
+            @Value("${app.ratelimit.cost.write:2}") long writeCost,
+            @Value("${app.ratelimit.cost.read:1}") long readCost) {
+        this.writeCost = writeCost;
+        this.readCost = readCost;
+        // Reihenfolge zählt: erster Treffer gewinnt
+        this.routes = List.of(
+                new Route("POST", "/api/user/admin/bulk-import", bulkCost),
+                new Route("DELETE", "/api/nachweise/all", bulkCost),
+                new Route("DELETE", "/api/nachweise/my-nachweise/all", bulkCost),
+                new Route("POST", "/api/nachweise", pdfCost),
+                new Route("PUT", "/api/nachweise/{id}", pdfCost),
+                new Route("GET", "/api/nachweise/{id}/pdf", pdfCost));
+    }
+
+    public long costOf(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        for (Route route : routes) {
+            if (route.method.equals(method) && MATCHER.match(route.pattern, path)) {
+                return route.cost;
+            }
+        }
+        return switch (method) {
+            case "POST", "PUT", "PATCH", "DELETE" -> writeCost;
+            default -> readCost;
+        };
+    }
+
+    private static class Route {
+        final String method;
+        final String pattern;
+        final long cost;
+
+        Route(String method, String pattern, long cost) {
+            this.method = method;
+            this.pattern = pattern;
+            this.cost = cost;
+        }
+    }
+}
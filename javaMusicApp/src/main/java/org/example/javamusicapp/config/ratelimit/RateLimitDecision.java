@@ -0,0 +1,20 @@
+package org.example.javamusicapp.config.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Ergebnis einer Rate-Limit-Prüfung – genau das, was der Filter für die `RateLimit-*`-Header braucht.
+ * Alle Zeitangaben in Millisekunden.
+ */
+@Getter
+@AllArgsConstructor
+public class RateLimitDecision {
+    private final boolean allowed;
+    private final long limit;
+    private final long remaining;
+    // bis der Bucket wieder komplett voll ist
+    private final long resetMillis;
+    // bis der abgelehnte Request frühestens durchginge (0 wenn erlaubt)
+    private final long retryAfterMillis;
+}
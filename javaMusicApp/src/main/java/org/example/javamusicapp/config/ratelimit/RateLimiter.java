@@ -0,0 +1,10 @@
+package org.example.javamusicapp.config.ratelimit;
+
+/**
+ * Gemeinsame Schnittstelle für die Rate-Limiter (Redis, lokal). {@code cost} ist die Anzahl Tokens,
+ * die der Request verbraucht.
+ */
+public interface RateLimiter {
+
+    RateLimitDecision tryAcquire(String key, long cost);
+}
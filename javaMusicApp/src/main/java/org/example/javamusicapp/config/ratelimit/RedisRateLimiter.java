@@ -0,0 +1,87 @@
+package org.example.javamusicapp.config.ratelimit;
+
+import org.example.javamusicapp.config.RedisCircuitBreaker;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.List;
+
+/**
+ * ⚡ **Was geht hier ab?**
+ * Verteiltes Rate-Limiting per GCRA (Generic Cell Rate Algorithm – ein Token Bucket, der mit EINEM Zeitstempel
+ * pro Key auskommt). Alles passiert in einem einzigen, atomaren Lua-Script:
+ * - **Ein Round Trip** statt `INCR` + `EXPIRE`. Spring schickt das Script per `EVALSHA` (SHA wird einmal
+ *   berechnet) und fällt nur beim allerersten Mal bzw. nach einem Redis-Restart auf `EVAL` zurück.
+ * - **Kein Crash-Fenster**: Wert und TTL werden im selben `SET ... PX` geschrieben, Keys laufen immer ab.
+ * - **Kein 2x-Burst an Fenstergrenzen**: Tokens tropfen gleichmäßig nach, es gibt keine harten Fenster.
+ * - Die Zeit kommt von Redis selbst (`TIME`), damit Instanzen mit schiefer Uhr sich nicht gegenseitig stören.
+ *
+ * Rückgabe: erlaubt ja/nein, verbleibende Tokens, Zeit bis der Bucket wieder voll ist und ggf. Retry-After.
+ * Der Script-Call läuft durch den `RedisCircuitBreaker` (bei offenem Breaker: `RedisUnavailableException`).
+ */
+public class RedisRateLimiter implements RateLimiter {
+
+    static final String KEY_PREFIX = "rl:";
+
+    // KEYS[1] = TAT-Key (theoretical arrival time); ARGV = emissionMs, burst, cost
+    // Rückgabe: {erlaubt (1/0), remaining, resetMs, retryAfterMs}
+    private static final DefaultRedisScript<List> GCRA_SCRIPT = new DefaultRedisScript<>("""
+            local emission = tonumber(ARGV[1])
+            local burst = tonumber(ARGV[2])
+            local cost = tonumber(ARGV[3])
+            local t = redis.call('TIME')
+            local now = t[1] * 1000 + math.floor(t[2] / 1000)
+            local tat = tonumber(redis.call('GET', KEYS[1])) or now
+            if tat < now then
+              tat = now
+            end
+            local newTat = tat + emission * cost
+            local allowAt = newTat - emission * burst
+            if allowAt > now then
+              local remaining = math.floor((now - (tat - emission * burst)) / emission)
+              if remaining < 0 then
+                remaining = 0
+              end
+              return {0, remaining, math.ceil(tat - now), math.ceil(allowAt - now)}
+            end
+            local ttl = math.ceil(newTat - now)
+            redis.call('SET', KEYS[1], newTat, 'PX', math.max(ttl, 1))
+            return {1, math.floor((now - allowAt) / emission), ttl, 0}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final long limit;
+    private final double emissionMillis;
+
+    /**
+     * @param limit         Tokens pro Fenster (= Burst-Größe)
+     * @param windowSeconds Zeit, in der sich ein leerer Bucket komplett auffüllt
+     */
+    public RedisRateLimiter(StringRedisTemplate redisTemplate, RedisCircuitBreaker circuitBreaker, long limit,
+            long windowSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.limit = limit;
+        this.emissionMillis = windowSeconds * 1000d / limit;
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String key, long cost) {
+        List<?> result = circuitBreaker.execute(() -> redisTemplate.execute(GCRA_SCRIPT, List.of(KEY_PREFIX + key),
+                Double.toString(emissionMillis), Long.toString(limit), Long.toString(cost)));
+        if (result == null || result.size() < 4) {
+            throw new IllegalStateException("Unerwartete Antwort vom Rate-Limit-Script: " + result);
+        }
+        return new RateLimitDecision(
+                toLong(result.get(0)) == 1L,
+                limit,
+                toLong(result.get(1)),
+                toLong(result.get(2)),
+                toLong(result.get(3)));
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
+}
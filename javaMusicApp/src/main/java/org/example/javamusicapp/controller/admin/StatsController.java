@@ -0,0 +1,90 @@
+package org.example.javamusicapp.controller.admin;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.javamusicapp.controller.admin.dto.StundenStatistikDto;
+import org.example.javamusicapp.service.nachweis.StundenStatistikService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 📈 **Was geht hier ab?**
+ * `GET /api/admin/stats`: Ausbildungsstunden pro Azubi und Bereich, gruppiert nach Monat (Standard) oder Jahr.
+ * Optional auf einen Azubi (`azubiId`) und/oder ein Jahr (`jahr`) eingrenzbar. Für Admins und Ausbilder.
+ *
+ * Die Daten kommen aus der Materialized View (siehe `StundenStatistikService`) und ändern sich höchstens einmal pro
+ * Refresh-Intervall. Deshalb darf der Browser die Antwort so lange behalten (`Cache-Control: private, max-age`),
+ * danach fragt er mit `If-None-Match` nach und kriegt ein `304`, solange sich nichts geändert hat. Das ETag ist
+ * ein SHA-256 über das serialisierte JSON – ein 32-Bit-`hashCode()` könnte kollidieren und dann alte Stunden als
+ * `304` bestätigen. Die Abfrage selbst läuft dabei trotzdem, sie geht aber nur auf die kleine, vorsummierte View;
+ * gespart wird die Übertragung.
+ */
+@RestController
+@RequestMapping("/api/admin")
+@Tag(name = "Admin", description = "Admin Werkzeuge")
+@SecurityRequirement(name = "bearerAuth")
+public class StatsController {
+
+    private final StundenStatistikService stundenStatistikService;
+    private final ObjectMapper objectMapper;
+    private final CacheControl cacheControl;
+
+    public StatsController(StundenStatistikService stundenStatistikService, ObjectMapper objectMapper,
+            @Value("${app.stats.refresh-interval-ms:60000}") long refreshIntervalMillis) {
+        this.stundenStatistikService = stundenStatistikService;
+        this.objectMapper = objectMapper;
+        this.cacheControl = CacheControl.maxAge(Duration.ofMillis(refreshIntervalMillis)).cachePrivate();
+    }
+
+    @Operation(summary = "Stunden-Statistik",
+            description = "Stunden pro Azubi und Bereich, gruppiert nach Monat oder Jahr (gruppierung=monat|jahr)")
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN') or @nachweisSecurityService.isAusbilder(authentication)")
+    public ResponseEntity<List<StundenStatistikDto>> stats(
+            @RequestParam(value = "azubiId", required = false) UUID azubiId,
+            @RequestParam(value = "jahr", required = false) Integer jahr,
+            @RequestParam(value = "gruppierung", defaultValue = "monat") String gruppierung,
+            WebRequest webRequest) throws JsonProcessingException {
+        List<StundenStatistikDto> statistik;
+        if ("monat".equalsIgnoreCase(gruppierung)) {
+            statistik = stundenStatistikService.proMonat(azubiId, jahr);
+        } else if ("jahr".equalsIgnoreCase(gruppierung)) {
+            statistik = stundenStatistikService.proJahr(azubiId, jahr);
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Kein Last-Modified: der Refresh-Zeitpunkt ist pro Instanz, der Inhalt ist überall derselbe
+        String etag = etag(statistik);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(cacheControl).eTag(etag).body(statistik);
+    }
+
+    private String etag(List<StundenStatistikDto> statistik) throws JsonProcessingException {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(statistik));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 ist nicht verfügbar", e);
+        }
+    }
+}
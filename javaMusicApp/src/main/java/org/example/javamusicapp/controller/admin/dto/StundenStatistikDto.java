@@ -0,0 +1,27 @@
+package org.example.javamusicapp.controller.admin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Eine Zeile fürs Ausbilder-Dashboard: Stunden eines Azubis in einem Bereich pro Monat bzw. pro Jahr
+ * (dann ist `monat` null). Kommt aus der Materialized View `stunden_statistik`.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StundenStatistikDto {
+    private UUID azubiId;
+    private String azubiName;
+    private int jahr;
+    private Integer monat;
+    private String section;
+    private BigDecimal stunden;
+    private long nachweise;
+}
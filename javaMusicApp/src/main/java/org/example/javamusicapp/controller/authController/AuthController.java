@@ -1,10 +1,13 @@
 package org.example.javamusicapp.controller.authController;
 
+import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.example.javamusicapp.config.auth.JwtUtil;
+import org.example.javamusicapp.config.ratelimit.ClientIpResolver;
 import org.example.javamusicapp.controller.authController.dto.*;
 import org.example.javamusicapp.exception.ResourceNotFoundException;
 import org.example.javamusicapp.handler.TokenRefreshException;
@@ -16,6 +19,7 @@ import org.example.javamusicapp.model.enums.ERole;
 import org.example.javamusicapp.repository.RoleRepository;
 import org.example.javamusicapp.repository.UserRepository;
 import org.example.javamusicapp.service.auth.AnmeldeversuchService;
+import org.example.javamusicapp.service.auth.AuthThrottleService;
 import org.example.javamusicapp.service.auth.PasswordResetTokenService;
 import org.example.javamusicapp.service.auth.RefreshTokenService;
 import org.example.javamusicapp.service.auth.UserService;
@@ -28,8 +32,10 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -48,8 +54,10 @@ import java.util.Optional;
  *   Access Token (JWT) und einen Refresh Token. Der Access Token ist dein Ticket für die
  *   geschützten Bereiche der App.
  * /refresh**: Wenn dein Access Token abgelaufen ist (die sind kurzlebig), schickst du
- *   deinen langlebigen Refresh Token hierher und kriegst 'nen brandneuen Access Token zurück.
+ *   deinen langlebigen Refresh Token hierher und kriegst 'nen brandneuen Access Token zurück –
+ *   plus einen neuen Refresh Token, der alte ist danach verbraucht (Rotation).
  *   So bleibst du eingeloggt, ohne jedes Mal dein Passwort neu einzugeben.
+ * /logout**: Sperrt den aktuellen Access Token bis zu seinem Ablauf und wirft den Refresh Token dieses Geräts weg.
  *  /forgot-password & /reset-password**: Wenn du dein Passwort vercheckt hast, kannst du
  *   hier 'nen Link anfordern, um es zurückzusetzen.
  */
@@ -68,6 +76,8 @@ public class AuthController {
     private final EmailService emailService;
     private final AnmeldeversuchService anmeldeversuchService;
     private final UserService userService;
+    private final AuthThrottleService authThrottleService;
+    private final ClientIpResolver clientIpResolver;
     private final String frontendUrl;
 
     public AuthController(
@@ -81,6 +91,8 @@ public class AuthController {
             EmailService emailService,
             AnmeldeversuchService anmeldeversuchService,
             UserService userService,
+            AuthThrottleService authThrottleService,
+            ClientIpResolver clientIpResolver,
             @Value("${app.frontend.url}") String frontendUrl) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
@@ -92,6 +104,8 @@ public class AuthController {
         this.emailService = emailService;
         this.anmeldeversuchService = anmeldeversuchService;
         this.userService = userService;
+        this.authThrottleService = authThrottleService;
+        this.clientIpResolver = clientIpResolver;
         this.frontendUrl = frontendUrl;
     }
 
@@ -100,7 +114,9 @@ public class AuthController {
      */
     @PostMapping("/register")
     @Operation(summary = "Registriert einen neuen Benutzer", description = "Speichert den Benutzer mit gehashtem Passwort in PostgreSQL. Gibt 201 Created zurück.")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody RegistrationRequest request) {
+    public ResponseEntity<?> registerUser(@Valid @RequestBody RegistrationRequest request,
+            HttpServletRequest httpRequest) {
+        authThrottleService.pruefe(clientIpResolver.resolve(httpRequest), request.getEmail());
         if (userRepository.existsByUsername(request.getUsername())) {
             return new ResponseEntity<>("Benutzername ist bereits vergeben!", HttpStatus.BAD_REQUEST);
         }
@@ -127,16 +143,23 @@ public class AuthController {
      */
     @PostMapping("/login")
     @Operation(summary = "Meldet Benutzer an", description = "Prüft Credentials, gibt bei Erfolg ein JWT-Token zurück, das für geschützte Endpunkte benötigt wird.")
-    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest request) {
-        if (anmeldeversuchService.istGesperrt(request.getEmail())) {
+    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        // Hinter dem Reverse-Proxy wäre getRemoteAddr() immer der Proxy -> Drossel und IP-Sperre träfen alle User
+        String clientIp = clientIpResolver.resolve(httpRequest);
+        // Erst drosseln, dann hashen: BCrypt ist der teure Teil
+        authThrottleService.pruefe(clientIp, request.getEmail());
+        if (anmeldeversuchService.istGesperrt(request.getEmail(), clientIp)) {
             return new ResponseEntity<>(
                     "Ihr Account ist aufgrund zu vieler Fehlversuche temporär gesperrt für 15 Minuten.",
                     HttpStatus.LOCKED);
         }
 
         try {
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
+            UsernamePasswordAuthenticationToken loginToken = new UsernamePasswordAuthenticationToken(
+                    request.getEmail(), request.getPassword());
+            // Damit der AnmeldeversuchListener die echte Client-IP kennt (Sperre pro IP)
+            loginToken.setDetails(new WebAuthenticationDetails(clientIp, null));
+            Authentication authentication = authenticationManager.authenticate(loginToken);
 
             User userDetails = (User) authentication.getPrincipal();
 
@@ -160,24 +183,55 @@ public class AuthController {
     }
 
     @PostMapping("/refresh")
-    @Operation(summary = "Erneuert den JWT Access Token", description = "Nimmt den langen Refresh Token entgegen, prüft ihn und gibt einen neuen Access Token aus.")
+    @Operation(summary = "Erneuert den JWT Access Token", description = "Nimmt den Refresh Token entgegen, tauscht ihn gegen einen neuen (Rotation) und gibt einen neuen Access Token aus.")
     public ResponseEntity<TokenRefreshResponse> refreshToken(@RequestBody TokenRefreshRequest request) {
-        log.info("=== REFRESH ENDPOINT REACHED! Token: {}", request.getRefreshToken());
         String requestRefreshToken = request.getRefreshToken();
-        return refreshTokenService.findByToken(requestRefreshToken)
-                .map(refreshTokenService::verifyExpiration)
-                .map(RefreshToken::getUserId)
-                .flatMap(userRepository::findById)
+        // Ein Redis-Call: alten Token verbrauchen, neuen ausstellen
+        RefreshToken rotated = refreshTokenService.rotate(requestRefreshToken)
+                .orElseThrow(() -> new TokenRefreshException(requestRefreshToken,
+                        "Refresh Token ist ungültig, abgelaufen oder wurde schon benutzt. Bitte melden Sie sich erneut an."));
+
+        // Nicht blind den gecachten Snapshot nehmen: dessen tokenVersion kann nach einer Rollen-Änderung oder einem
+        // Passwort-Reset auf einer anderen Instanz veraltet sein, der neue Token wäre dann sofort ungültig
+        return userService.findCurrentPrincipalById(rotated.getUserId())
                 .map(user -> {
                     String newAccessToken = jwtUtil.generateToken(user);
                     return ResponseEntity.ok(new TokenRefreshResponse(
                             newAccessToken,
-                            requestRefreshToken,
+                            rotated.getToken(),
                             user.getUsername(),
                             "Bearer "));
                 })
-                .orElseThrow(() -> new TokenRefreshException(requestRefreshToken,
-                        "Refresh Token ist ungültig oder Benutzer existiert nicht mehr!"));
+                .orElseThrow(() -> {
+                    refreshTokenService.revoke(rotated.getToken());
+                    return new TokenRefreshException(requestRefreshToken, "Benutzer existiert nicht mehr!");
+                });
+    }
+
+    /*
+     * Dieser Endpunkt ist zuständig für den Logout. Der Access Token landet auf der
+     * Sperrliste (und fliegt aus dem VerifiedTokenCache), der Refresh Token wird gelöscht.
+     */
+    @PostMapping("/logout")
+    @Operation(summary = "Meldet Benutzer ab", description = "Sperrt den übergebenen Access Token bis zu seinem Ablauf und löscht den Refresh Token dieses Geräts.")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestBody(required = false) TokenRefreshRequest request) {
+        if (request != null && request.getRefreshToken() != null) {
+            // Nur dieses Gerät abmelden, andere Sessions bleiben aktiv
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.ok("Abgemeldet.");
+        }
+        String token = authHeader.substring(7);
+        Claims claims = jwtUtil.parseAndValidate(token);
+        if (claims == null) {
+            // Schon abgelaufen oder ungültig -> nix zu sperren
+            return ResponseEntity.ok("Abgemeldet.");
+        }
+        jwtUtil.revoke(token, claims);
+        log.info("Logout für {}", claims.getSubject());
+        return ResponseEntity.ok("Abgemeldet.");
     }
 
     /*
@@ -187,7 +241,9 @@ public class AuthController {
      */
     @PostMapping("/forgot-password")
     @Operation(summary = "Passwort zurücksetzen anfordern", description = "Sendet eine E-Mail mit einem Link zum Zurücksetzen des Passworts.")
-    public ResponseEntity<?> forgotPassword(@Valid @RequestBody ForgotPasswordRequest forgotPasswordRequest) {
+    public ResponseEntity<?> forgotPassword(@Valid @RequestBody ForgotPasswordRequest forgotPasswordRequest,
+            HttpServletRequest httpRequest) {
+        authThrottleService.pruefe(clientIpResolver.resolve(httpRequest), forgotPasswordRequest.getEmail());
         Optional<User> userOptional = userRepository.findByEmail(forgotPasswordRequest.getEmail());
 
         if (userOptional.isEmpty()) {
@@ -214,7 +270,9 @@ public class AuthController {
      */
     @PostMapping("/reset-password")
     @Operation(summary = "Passwort zurücksetzen", description = "Setzt das Passwort des Benutzers mit einem gültigen Token zurück.")
-    public ResponseEntity<?> resetPassword(@Valid @RequestBody ResetPasswordRequest resetPasswordRequest) {
+    public ResponseEntity<?> resetPassword(@Valid @RequestBody ResetPasswordRequest resetPasswordRequest,
+            HttpServletRequest httpRequest) {
+        authThrottleService.pruefe(clientIpResolver.resolve(httpRequest), null);
         String token = resetPasswordRequest.getToken();
         String newPassword = resetPasswordRequest.getNewPassword();
 
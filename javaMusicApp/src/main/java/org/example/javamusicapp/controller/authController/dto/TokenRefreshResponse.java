@@ -11,7 +11,7 @@ public class TokenRefreshResponse {
     @Schema(description = "Neues Zugriffstoken", example = "eyJhbGci...", accessMode = Schema.AccessMode.READ_ONLY)
     private String accessToken;
 
-    @Schema(description = "Refresh-Token (unverändert)", example = "f47ac10b-58cc-4372-a567-0e02b2c3d479")
+    @Schema(description = "Neuer Refresh-Token (der alte ist nach dem Refresh verbraucht)", example = "f47ac10b-58cc-4372-a567-0e02b2c3d479")
     private String refreshToken;
 
     @Schema(description = "Benutzername, für den der Token aktualisiert wurde", example = "julianguyen")
@@ -12,11 +12,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.example.javamusicapp.controller.nachweisController.dto.AuditPageResponse;
 import org.example.javamusicapp.controller.nachweisController.dto.NachweisAuditDto;
-import java.util.ArrayList;
+import org.example.javamusicapp.controller.nachweisController.dto.SliceResponse;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -39,6 +40,7 @@ import java.util.UUID;
  * - /{nachweisId}**: Die komplette History für EINEN bestimmten Nachweis. Also wer hat ihn
  *   erstellt, wann wurde er eingereicht, wer hat ihn genehmigt oder abgelehnt und welche
  *   Daten haben sich dabei geändert (vorher/nachher Vergleich).
+ * - .../slice: Dasselbe fürs Infinite Scrolling, neueste zuerst und ohne `count(*)`.
  *
  * Ultra wichtig für die Nachvollziehbarkeit und wenn's mal Diskussionen gibt.
  */
@@ -63,27 +65,7 @@ public class NachweisAuditController {
             @RequestParam(value = "size", defaultValue = "50") int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<NachweisAuditLog> audits = auditRepository.findAllByNachweisId(nachweisId, pageable);
-        List<NachweisAuditDto> items = new ArrayList<>();
-        for (NachweisAuditLog a : audits.getContent()) {
-            JsonNode alte = null;
-            JsonNode neu = null;
-            try {
-                alte = a.getAlteDaten() != null ? objectMapper.readTree(a.getAlteDaten()) : null;
-                neu = a.getNeueDaten() != null ? objectMapper.readTree(a.getNeueDaten()) : null;
-            } catch (Exception ignored) {
-            }
-
-            NachweisAuditDto dto = NachweisAuditDto.builder()
-                    .id(a.getId())
-                    .nachweisId(a.getNachweisId())
-                    .aktion(a.getAktion())
-                    .aktionsZeit(a.getAktionsZeit())
-                    .benutzerName(a.getBenutzerName())
-                    .alteDaten(alte)
-                    .neueDaten(neu)
-                    .build();
-            items.add(dto);
-        }
+        List<NachweisAuditDto> items = audits.getContent().stream().map(this::toDto).toList();
 
         AuditPageResponse<NachweisAuditDto> resp = new AuditPageResponse<>(items, audits.getNumber(), audits.getSize(),
                 audits.getTotalPages(), audits.getTotalElements());
@@ -98,30 +80,52 @@ public class NachweisAuditController {
             @RequestParam(value = "size", defaultValue = "50") int size) {
         Pageable pageable = PageRequest.of(page, size);
         Page<NachweisAuditLog> audits = auditRepository.findAll(pageable);
-        List<NachweisAuditDto> items = new ArrayList<>();
-        for (NachweisAuditLog a : audits.getContent()) {
-            JsonNode alte = null;
-            JsonNode neu = null;
-            try {
-                alte = a.getAlteDaten() != null ? objectMapper.readTree(a.getAlteDaten()) : null;
-                neu = a.getNeueDaten() != null ? objectMapper.readTree(a.getNeueDaten()) : null;
-            } catch (Exception ignored) {
-            }
-
-            NachweisAuditDto dto = NachweisAuditDto.builder()
-                    .id(a.getId())
-                    .nachweisId(a.getNachweisId())
-                    .aktion(a.getAktion())
-                    .aktionsZeit(a.getAktionsZeit())
-                    .benutzerName(a.getBenutzerName())
-                    .alteDaten(alte)
-                    .neueDaten(neu)
-                    .build();
-            items.add(dto);
-        }
+        List<NachweisAuditDto> items = audits.getContent().stream().map(this::toDto).toList();
 
         AuditPageResponse<NachweisAuditDto> resp = new AuditPageResponse<>(items, audits.getNumber(), audits.getSize(),
                 audits.getTotalPages(), audits.getTotalElements());
         return ResponseEntity.ok(resp);
     }
+
+    @Operation(summary = "Nachweis-Audit fürs Infinite Scrolling", description = "Wie /{nachweisId}, aber ohne Gesamtzahl (kein count-Query), neueste Einträge zuerst.")
+    @GetMapping("/{nachweisId}/slice")
+    @PreAuthorize("hasRole('ADMIN') or @nachweisSecurityService.isAusbilder(authentication) or @nachweisSecurityService.isOwner(authentication, #nachweisId)")
+    public ResponseEntity<SliceResponse<NachweisAuditDto>> getAuditForNachweisSlice(Authentication authentication,
+            @PathVariable("nachweisId") UUID nachweisId,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        Slice<NachweisAuditLog> audits = auditRepository.findByNachweisIdOrderByAktionsZeitDesc(nachweisId,
+                PageRequest.of(page, size));
+        return ResponseEntity.ok(SliceResponse.of(audits, this::toDto));
+    }
+
+    @Operation(summary = "Alle Nachweis-Audit-Einträge fürs Infinite Scrolling", description = "Wie /, aber ohne Gesamtzahl (kein count-Query), neueste Einträge zuerst. Nur für Admins/Ausbilder.")
+    @GetMapping("/slice")
+    @PreAuthorize("hasRole('ADMIN') or @nachweisSecurityService.isAusbilder(authentication)")
+    public ResponseEntity<SliceResponse<NachweisAuditDto>> getAllAuditSlice(Authentication authentication,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        Slice<NachweisAuditLog> audits = auditRepository.findAllByOrderByAktionsZeitDesc(PageRequest.of(page, size));
+        return ResponseEntity.ok(SliceResponse.of(audits, this::toDto));
+    }
+
+    private NachweisAuditDto toDto(NachweisAuditLog a) {
+        JsonNode alte = null;
+        JsonNode neu = null;
+        try {
+            alte = a.getAlteDaten() != null ? objectMapper.readTree(a.getAlteDaten()) : null;
+            neu = a.getNeueDaten() != null ? objectMapper.readTree(a.getNeueDaten()) : null;
+        } catch (Exception ignored) {
+        }
+
+        return NachweisAuditDto.builder()
+                .id(a.getId())
+                .nachweisId(a.getNachweisId())
+                .aktion(a.getAktion())
+                .aktionsZeit(a.getAktionsZeit())
+                .benutzerName(a.getBenutzerName())
+                .alteDaten(alte)
+                .neueDaten(neu)
+                .build();
+    }
 }
@@ -9,17 +9,26 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.javamusicapp.controller.nachweisController.dto.ActivityDTO;
+import org.example.javamusicapp.controller.nachweisController.dto.ActivityPatchRequest;
+import org.example.javamusicapp.controller.nachweisController.dto.CountResponse;
 import org.example.javamusicapp.controller.nachweisController.dto.CreateNachweisRequest;
 import org.example.javamusicapp.controller.nachweisController.dto.NachweisStatusUpdateRequest;
+import org.example.javamusicapp.controller.nachweisController.dto.NachweisSummaryDto;
+import org.example.javamusicapp.controller.nachweisController.dto.SliceResponse;
+import org.example.javamusicapp.controller.nachweisController.dto.StundenAuswertungDto;
 import org.example.javamusicapp.exception.ResourceNotFoundException;
 import org.example.javamusicapp.model.enums.EStatus;
+import org.example.javamusicapp.model.enums.Weekday;
 import org.springframework.data.domain.Page;
+import org.example.javamusicapp.model.Activity;
 import org.example.javamusicapp.model.Nachweis;
 import org.example.javamusicapp.repository.NachweisRepository;
 import org.example.javamusicapp.service.nachweis.NachweisService;
 import org.example.javamusicapp.service.nachweis.PdfExportService;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -34,6 +43,7 @@ import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -47,15 +57,21 @@ import java.util.UUID;
  * - **POST /**: Azubi erstellt einen neuen Nachweis für die Woche. Im Backend wird direkt
  *   ein PDF generiert und gespeichert.
  * - **GET /my-nachweise**: Azubi kann alle seine bisherigen Nachweise sehen,
- *   filtern (z.B. nur die offenen) und seitenweise durchblättern.
+ *   filtern (z.B. nur die offenen) und seitenweise durchblättern. Die Listen liefern nur schlanke
+ *   `NachweisSummaryDto`s (ID, Nummer, Datum, Status, Namen), keine Aktivitäten.
+ * - **GET .../slice** und **GET .../count**: Dieselben Listen fürs Infinite Scrolling ohne `count(*)`, die
+ *   Gesamtzahl gibt's bei Bedarf separat (gecached).
+ * - **GET /{id}**: Der komplette Nachweis mit Aktivitäten für die Detail-Ansicht.
  * - **GET /{id}/pdf**: Holt das generierte PDF für einen Nachweis. Safe, dass nur der
  *   Besitzer oder ein Admin das kann.
  * - **PUT /{id}**: Azubi kann einen Nachweis bearbeiten (z.B. nach Feedback vom Ausbilder).
+ * - **PATCH /{id}/activities/{day}/{slot}**: Autosave einer einzelnen Zelle im Wochenplan, ohne PDF und Mail.
  * - **PUT /{id}/status**: Admin/Ausbilder gibt dem Nachweis seinen Segen (`ANGENOMMEN`) oder
  *   lehnt ihn ab (`ABGELEHNT`).
  * - **DELETE /{id}**: Löscht einen Nachweis.
  * - **Admin-Endpunkte (/admin/**):** Extra krasse Endpunkte, mit denen Admins/Ausbilder
- *   alle Nachweise von allen Usern sehen und verwalten können.
+ *   alle Nachweise von allen Usern sehen und verwalten können. `GET /admin/stunden` liefert die Stunden pro
+ *   Azubi und Bereich für einen Zeitraum, direkt in der DB summiert.
  */
 @RestController
 @RequestMapping("/api/nachweise")
@@ -94,16 +110,48 @@ public class NachweisController {
     @Operation(summary = "Ruft alle Nachweise für den aktuell angemeldeten Azubi ab, mit optionaler Filterung und Pagination.", description = "Gibt eine Liste aller Nachweise zurück, die dem aktuell authentifizierten Azubi gehören. Kann nach Status gefiltert und paginiert werden.")
     @ApiResponse(responseCode = "200", description = "Liste der Nachweise erfolgreich abgerufen.")
     @ApiResponse(responseCode = "403", description = "Zugriff verweigert, wenn der Benutzer nicht authentifiziert ist.")
-    public ResponseEntity<Page<Nachweis>> getMyNachweise(
+    public ResponseEntity<Page<NachweisSummaryDto>> getMyNachweise(
             @AuthenticationPrincipal UserDetails userDetails,
             @RequestParam(required = false) EStatus status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        Page<Nachweis> nachweise = nachweisService.kriegeNachweiseVonAzubiBenutzernameMitFilterUndPagination(
+        Page<NachweisSummaryDto> nachweise = nachweisService.kriegeNachweiseVonAzubiBenutzernameMitFilterUndPagination(
                 userDetails.getUsername(), status, page, size);
         return ResponseEntity.ok(nachweise);
     }
 
+    @GetMapping("/my-nachweise/slice")
+    @Operation(summary = "Nachweise des angemeldeten Azubis fürs Infinite Scrolling.", description = "Wie /my-nachweise, aber ohne Gesamtzahl (kein count-Query). Liefert nur die Einträge und ob es eine weitere Seite gibt.")
+    @ApiResponse(responseCode = "200", description = "Seite der Nachweise erfolgreich abgerufen.")
+    @ApiResponse(responseCode = "403", description = "Zugriff verweigert, wenn der Benutzer nicht authentifiziert ist.")
+    public ResponseEntity<SliceResponse<NachweisSummaryDto>> getMyNachweiseSlice(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) EStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(SliceResponse.of(nachweisService.kriegeNachweiseVonAzubiBenutzernameAlsSlice(
+                userDetails.getUsername(), status, page, size)));
+    }
+
+    @GetMapping("/my-nachweise/count")
+    @Operation(summary = "Anzahl der Nachweise des angemeldeten Azubis.", description = "Gesamtzahl auf Anfrage, optional nach Status gefiltert. Wird kurz gecached.")
+    @ApiResponse(responseCode = "200", description = "Anzahl erfolgreich abgerufen.")
+    public ResponseEntity<CountResponse> countMyNachweise(@AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) EStatus status) {
+        return ResponseEntity.ok(new CountResponse(
+                nachweisService.zaehleNachweiseVonAzubiBenutzername(userDetails.getUsername(), status)));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Holt einen Nachweis mit allen Details anhand seiner ID.", description = "Gibt den kompletten Nachweis inklusive Aktivitäten, Azubi und Ausbilder zurück. Nur für den Besitzer oder einen Admin zugänglich.")
+    @ApiResponse(responseCode = "200", description = "Nachweis gefunden und zurückgegeben.")
+    @ApiResponse(responseCode = "403", description = "Verboten - Sie sind nicht der Besitzer dieses Nachweises.")
+    @ApiResponse(responseCode = "404", description = "Nachweis nicht gefunden.")
+    @PreAuthorize("hasRole('ADMIN') or @nachweisSecurityService.isOwner(authentication, #id)")
+    public ResponseEntity<Nachweis> getNachweis(@PathVariable UUID id) {
+        return ResponseEntity.ok(nachweisService.kriegeNachweisDetails(id));
+    }
+
     @GetMapping("/{id}/pdf")
     @Operation(summary = "Holt ein Nachweis-PDF anhand seiner ID.", description = "Ruft das PDF eines bestimmten Nachweises ab. Nur für den Besitzer oder einen Admin zugänglich.")
     @ApiResponse(responseCode = "200", description = "PDF gefunden und zurückgegeben.")
@@ -149,8 +197,8 @@ public class NachweisController {
     @ApiResponse(responseCode = "204", description = "Alle Nachweise und PDFs erfolgreich gelöscht.")
     @ApiResponse(responseCode = "403", description = "Verboten - Nur Administratoren können alle Nachweise löschen.")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> deleteAllNachweise() {
-        nachweisService.loescheAlleNachweise();
+    public ResponseEntity<Void> deleteAllNachweise(@AuthenticationPrincipal UserDetails userDetails) {
+        nachweisService.loescheAlleNachweise(userDetails.getUsername());
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
@@ -160,7 +208,7 @@ public class NachweisController {
     @ApiResponse(responseCode = "403", description = "Verboten - Zugriff verweigert, wenn der Benutzer nicht authentifiziert ist.")
     @PreAuthorize("hasRole('USER')") // Assuming 'USER' role for regular users
     public ResponseEntity<Void> deleteAllMyNachweise(@AuthenticationPrincipal UserDetails userDetails) {
-        nachweisService.loescheAlleNachweiseVonAzubi(userDetails.getUsername());
+        nachweisService.loescheAlleNachweiseVonAzubi(userDetails.getUsername(), userDetails.getUsername());
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
@@ -169,11 +217,12 @@ public class NachweisController {
     @ApiResponse(responseCode = "200", description = "Liste aller Nachweise erfolgreich abgerufen.")
     @ApiResponse(responseCode = "403", description = "Verboten - Nur Administratoren können alle Nachweise abrufen.")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Page<Nachweis>> getAllNachweise(
+    public ResponseEntity<Page<NachweisSummaryDto>> getAllNachweise(
             @RequestParam(required = false) EStatus status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        Page<Nachweis> nachweise = nachweisService.kriegeAlleNachweiseMitFilterUndPagination(status, page, size);
+        Page<NachweisSummaryDto> nachweise = nachweisService.kriegeAlleNachweiseMitFilterUndPagination(status, page,
+                size);
         return ResponseEntity.ok(nachweise);
     }
 
@@ -183,19 +232,80 @@ public class NachweisController {
     @ApiResponse(responseCode = "403", description = "Verboten - Nur Administratoren können Nachweise für andere Benutzer abrufen.")
     @ApiResponse(responseCode = "404", description = "Benutzer nicht gefunden oder keine Nachweise vorhanden.")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Page<Nachweis>> getNachweiseByUserId(
+    public ResponseEntity<Page<NachweisSummaryDto>> getNachweiseByUserId(
             @PathVariable UUID userId,
             @RequestParam(required = false) EStatus status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        Page<Nachweis> nachweise = nachweisService.findNachweiseByUserIdMitFilterUndPagination(userId, status, page,
-                size);
+        Page<NachweisSummaryDto> nachweise = nachweisService.findNachweiseByUserIdMitFilterUndPagination(userId, status,
+                page, size);
         if (nachweise.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
         return ResponseEntity.ok(nachweise);
     }
 
+    @GetMapping("/admin/all/slice")
+    @Operation(summary = "Alle Nachweise fürs Infinite Scrolling (Admin-Zugriff).", description = "Wie /admin/all, aber ohne Gesamtzahl (kein count-Query).")
+    @ApiResponse(responseCode = "200", description = "Seite der Nachweise erfolgreich abgerufen.")
+    @ApiResponse(responseCode = "403", description = "Verboten - Nur Administratoren können alle Nachweise abrufen.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SliceResponse<NachweisSummaryDto>> getAllNachweiseSlice(
+            @RequestParam(required = false) EStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(SliceResponse.of(nachweisService.kriegeAlleNachweiseAlsSlice(status, page, size)));
+    }
+
+    @GetMapping("/admin/all/count")
+    @Operation(summary = "Anzahl aller Nachweise (Admin-Zugriff).", description = "Gesamtzahl auf Anfrage, optional nach Status gefiltert. Wird kurz gecached.")
+    @ApiResponse(responseCode = "200", description = "Anzahl erfolgreich abgerufen.")
+    @ApiResponse(responseCode = "403", description = "Verboten - Nur Administratoren.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CountResponse> countAllNachweise(@RequestParam(required = false) EStatus status) {
+        return ResponseEntity.ok(new CountResponse(nachweisService.zaehleNachweise(null, status)));
+    }
+
+    @GetMapping("/admin/user/{userId}/slice")
+    @Operation(summary = "Nachweise eines Benutzers fürs Infinite Scrolling (Admin-Zugriff).", description = "Wie /admin/user/{userId}, aber ohne Gesamtzahl (kein count-Query).")
+    @ApiResponse(responseCode = "200", description = "Seite der Nachweise erfolgreich abgerufen.")
+    @ApiResponse(responseCode = "403", description = "Verboten - Nur Administratoren können Nachweise für andere Benutzer abrufen.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SliceResponse<NachweisSummaryDto>> getNachweiseByUserIdSlice(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) EStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(SliceResponse.of(
+                nachweisService.findNachweiseByUserIdAlsSlice(userId, status, page, size)));
+    }
+
+    @GetMapping("/admin/user/{userId}/count")
+    @Operation(summary = "Anzahl der Nachweise eines Benutzers (Admin-Zugriff).", description = "Gesamtzahl auf Anfrage, optional nach Status gefiltert. Wird kurz gecached.")
+    @ApiResponse(responseCode = "200", description = "Anzahl erfolgreich abgerufen.")
+    @ApiResponse(responseCode = "403", description = "Verboten - Nur Administratoren.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CountResponse> countNachweiseByUserId(@PathVariable UUID userId,
+            @RequestParam(required = false) EStatus status) {
+        return ResponseEntity.ok(new CountResponse(nachweisService.zaehleNachweise(userId, status)));
+    }
+
+    @GetMapping("/admin/stunden")
+    @Operation(summary = "Stunden pro Azubi und Bereich im Zeitraum (Admin-Zugriff).", description = "Summiert die Stunden aller Nachweise, deren Woche zwischen von und bis beginnt, pro Azubi und Bereich (section). Wird in der Datenbank aggregiert, optional auf einen Azubi gefiltert.")
+    @ApiResponse(responseCode = "200", description = "Auswertung erfolgreich abgerufen.")
+    @ApiResponse(responseCode = "400", description = "Ungültiger Zeitraum (von liegt nach bis).")
+    @ApiResponse(responseCode = "403", description = "Verboten - Nur Administratoren.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<StundenAuswertungDto>> getStundenAuswertung(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate von,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bis,
+            @RequestParam(required = false) UUID azubiId) {
+        if (von.isAfter(bis)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(nachweisService.stundenAuswertung(azubiId, von, bis));
+    }
+
     @PutMapping("/{id}/status")
     @Operation(summary = "Aktualisiert den Status eines Nachweises (Admin-Zugriff).", description = "Ermöglicht Administratoren, den Status eines Nachweises auf ANGENOMMEN oder ABGELEHNT zu setzen.")
     @ApiResponse(responseCode = "200", description = "Nachweisstatus erfolgreich aktualisiert.")
@@ -213,6 +323,29 @@ public class NachweisController {
         return ResponseEntity.ok(updatedNachweis);
     }
 
+    @PatchMapping("/{id}/activities/{day}/{slot}")
+    @Operation(summary = "Aktualisiert eine einzelne Aktivität (Tag, Slot) eines Nachweises.", description = "Für Autosave einzelner Zellen im Wochenplan. Nur gesetzte Felder werden übernommen, ein noch nicht belegter Slot wird angelegt. Es wird kein neues PDF generiert und keine Mail verschickt.")
+    @ApiResponse(responseCode = "200", description = "Aktivität erfolgreich aktualisiert.")
+    @ApiResponse(responseCode = "400", description = "Ungültiger Slot oder ungültige Werte.")
+    @ApiResponse(responseCode = "403", description = "Verboten - Sie sind nicht der Besitzer dieses Nachweises.")
+    @ApiResponse(responseCode = "404", description = "Nachweis nicht gefunden.")
+    @PreAuthorize("@nachweisSecurityService.isOwner(authentication, #id)")
+    public ResponseEntity<ActivityDTO> updateActivity(@PathVariable UUID id, @PathVariable Weekday day,
+            @PathVariable int slot, @Valid @RequestBody ActivityPatchRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        if (slot < 1 || slot > Activity.MAX_SLOT) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        Activity activity = nachweisService.aktualisiereAktivitaet(id, day, slot, request, userDetails.getUsername());
+        ActivityDTO dto = new ActivityDTO();
+        dto.setDay(activity.getDay());
+        dto.setSlot(activity.getSlot());
+        dto.setDescription(activity.getDescription());
+        dto.setHours(activity.getHours());
+        dto.setSection(activity.getSection());
+        return ResponseEntity.ok(dto);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Aktualisiert einen Nachweis durch den Azubi.", description = "Ermöglicht dem Azubi, seinen eigenen Nachweis zu aktualisieren. Der Status wird auf IN_BEARBEITUNG zurückgesetzt.")
     @ApiResponse(responseCode = "200", description = "Nachweis erfolgreich aktualisiert.")
@@ -1,11 +1,14 @@
 package org.example.javamusicapp.controller.nachweisController.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import org.example.javamusicapp.model.Activity;
 import org.example.javamusicapp.model.enums.Weekday;
 
 import java.math.BigDecimal;
@@ -18,6 +21,7 @@ public class ActivityDTO {
 
     @NotNull(message = "Slot darf nicht null sein")
     @Min(value = 1, message = "Slot muss mindestens 1 sein")
+    @Max(value = Activity.MAX_SLOT, message = "Slot darf höchstens " + Activity.MAX_SLOT + " sein")
     @Schema(description = "Zeitschlitz für die Aktivität (z.B. 1 für die erste Aufgabe des Tages)", example = "1")
     private Integer slot;
 
@@ -27,6 +31,7 @@ public class ActivityDTO {
 
     @NotNull(message = "Stunden dürfen nicht null sein")
     @DecimalMin(value = "0.1", message = "Stunden müssen größer als 0 sein")
+    @DecimalMax(value = "24", message = "Stunden dürfen höchstens 24 sein")
     @Schema(description = "Stunden, die für die Aktivität aufgewendet wurden", example = "8.0")
     private BigDecimal hours;
 
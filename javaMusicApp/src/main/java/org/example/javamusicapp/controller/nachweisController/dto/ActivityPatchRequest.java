@@ -0,0 +1,28 @@
+package org.example.javamusicapp.controller.nachweisController.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Teil-Update für eine einzelne Aktivität (eine Zelle im Wochenplan). Nur gesetzte Felder werden übernommen.
+ */
+@Data
+public class ActivityPatchRequest {
+    @Size(max = 2000, message = "Beschreibung darf höchstens 2000 Zeichen lang sein")
+    @Schema(description = "Detaillierte Beschreibung der Aktivität", example = "Coding mit Vergil")
+    private String description;
+
+    @DecimalMin(value = "0.1", message = "Stunden müssen größer als 0 sein")
+    @DecimalMax(value = "24", message = "Stunden dürfen höchstens 24 sein")
+    @Schema(description = "Stunden, die für die Aktivität aufgewendet wurden", example = "4.0")
+    private BigDecimal hours;
+
+    @Size(max = 255, message = "Sektion darf höchstens 255 Zeichen lang sein")
+    @Schema(description = "Abteilung oder Bereich, in dem die Aktivität stattfand", example = "Entwicklung")
+    private String section;
+}
@@ -0,0 +1,12 @@
+package org.example.javamusicapp.controller.nachweisController.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CountResponse {
+    private long count;
+}
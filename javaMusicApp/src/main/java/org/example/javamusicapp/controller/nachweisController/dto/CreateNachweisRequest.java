@@ -1,6 +1,9 @@
 package org.example.javamusicapp.controller.nachweisController.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,7 +11,9 @@ import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Data
@@ -26,6 +31,7 @@ public class CreateNachweisRequest {
     private int nummer;
 
     @Schema(description = "Liste der Aktivitäten für die Woche. Wenn nicht angegeben, wird eine Standardliste erstellt.")
+    @Valid
     private List<ActivityDTO> activities;
 
     @NotNull(message = "Ausbilder-ID darf nicht null sein")
@@ -40,4 +46,20 @@ public class CreateNachweisRequest {
     @Size(max = 50, message = "Ausbildungsjahr darf maximal 50 Zeichen lang sein")
     @Schema(description = "Das Ausbildungsjahr (z.B. '1. Ausbildungsjahr', '2. Ausbildungsjahr')", example = "2. Ausbildungsjahr")
     private String ausbildungsjahr;
+
+    // Jede Zelle (Tag, Slot) nur einmal, sonst schlägt der Unique-Index auf activity zu
+    @JsonIgnore
+    @AssertTrue(message = "Jede Kombination aus Tag und Slot darf nur einmal vorkommen")
+    public boolean isSlotsEindeutig() {
+        if (activities == null) {
+            return true;
+        }
+        Set<String> belegt = new HashSet<>();
+        for (ActivityDTO activity : activities) {
+            if (activity != null && !belegt.add(activity.getDay() + ":" + activity.getSlot())) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
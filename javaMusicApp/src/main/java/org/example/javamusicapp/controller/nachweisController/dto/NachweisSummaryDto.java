@@ -0,0 +1,29 @@
+package org.example.javamusicapp.controller.nachweisController.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.javamusicapp.model.enums.EStatus;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Eine Zeile in den Nachweis-Listen. Kommt direkt per Konstruktor-Projektion aus der Query
+ * (siehe `NachweisRepository`), ohne Aktivitäten und ohne komplette User-Objekte.
+ * Die Details gibt's über `GET /api/nachweise/{id}`.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NachweisSummaryDto {
+    private UUID id;
+    private int nummer;
+    private LocalDate datumStart;
+    private LocalDate datumEnde;
+    private EStatus status;
+    private UUID azubiId;
+    private String azubiName;
+    private UUID ausbilderId;
+    private String ausbilderName;
+}
@@ -0,0 +1,32 @@
+package org.example.javamusicapp.controller.nachweisController.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Eine Seite ohne Gesamtzahl fürs Infinite Scrolling: nur die Einträge und ob es noch mehr gibt.
+ * Spart das `count(*)`, das ein `Page` bei jeder Seite mitschleppt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SliceResponse<T> {
+    private List<T> items;
+    private int page;
+    private int size;
+    private boolean hasNext;
+
+    public static <T> SliceResponse<T> of(Slice<T> slice) {
+        return new SliceResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+
+    public static <S, T> SliceResponse<T> of(Slice<S> slice, Function<S, T> mapper) {
+        return new SliceResponse<>(slice.getContent().stream().map(mapper).toList(), slice.getNumber(),
+                slice.getSize(), slice.hasNext());
+    }
+}
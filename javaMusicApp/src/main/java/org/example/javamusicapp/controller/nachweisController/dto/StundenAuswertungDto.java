@@ -0,0 +1,22 @@
+package org.example.javamusicapp.controller.nachweisController.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Eine Zeile der Stunden-Auswertung: Summe der Stunden eines Azubis in einem Bereich (`section`) im gewählten
+ * Zeitraum. Wird komplett in der DB aggregiert (siehe `ActivityRepository`), es werden keine Aktivitäten geladen.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StundenAuswertungDto {
+    private UUID azubiId;
+    private String azubiName;
+    private String section;
+    private BigDecimal stunden;
+}
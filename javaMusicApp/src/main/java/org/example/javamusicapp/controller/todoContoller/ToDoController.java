@@ -1,5 +1,6 @@
 package org.example.javamusicapp.controller.todoContoller;
 
+import org.example.javamusicapp.controller.nachweisController.dto.SliceResponse;
 import org.example.javamusicapp.controller.todoContoller.dto.CreateToDoRequest;
 import org.example.javamusicapp.controller.todoContoller.dto.ToDoResponse;
 import org.example.javamusicapp.model.ToDo;
@@ -12,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.security.Principal;
@@ -32,6 +34,7 @@ import org.example.javamusicapp.controller.todoContoller.dto.UpdateToDoRequest;
  * Die Endpunkte sind Standard-CRUD-Vibes:
  * - **POST /**: Erstellt ein neues To-Do für den eingeloggten User.
  * - **GET /me**: Listet alle To-Dos vom eingeloggten User auf.
+ * - **GET /me/slice**: Dasselbe seitenweise fürs Infinite Scrolling (ohne Gesamtzahl).
  * - **DELETE /{id}**: Löscht ein To-Do, aber nur, wenn es dir auch gehört.
  * - **PATCH /{id}**: Updated ein To-Do teilweise (z.B. nur den Status ändern).
  * - **PUT /{id}**: Updated ein To-Do komplett.
@@ -98,6 +101,30 @@ public class ToDoController {
         return new ResponseEntity<>(result, HttpStatus.OK);
     }
 
+    @GetMapping("/me/slice")
+    @Operation(summary = "Get todos from current user page by page", description = "Infinite-scroll variant of /me: returns one page and whether there is a next one, without a count query", responses = {
+            @ApiResponse(responseCode = "200", description = "Get"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "429", description = "Too Many Requests")
+    })
+    public ResponseEntity<SliceResponse<ToDoResponse>> listMyToDosSlice(Principal principal,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (principal == null) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        SliceResponse<ToDoResponse> result = SliceResponse.of(
+                toDoService.findSliceByUserUsername(principal.getName(), page, size),
+                todo -> new ToDoResponse(
+                        todo.getId(),
+                        todo.getTitle(),
+                        todo.getDescription(),
+                        todo.getStatus(),
+                        todo.getUser().getId(),
+                        todo.getUser().getUsername()));
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete a ToDo of current user", description = "Deletes the ToDo with given id if it belongs to the authenticated user", responses = {
             @ApiResponse(responseCode = "204", description = "Deleted"),
@@ -6,9 +6,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.javamusicapp.controller.authController.dto.RegistrationRequest;
+import org.example.javamusicapp.controller.userController.dto.BulkImportResult;
 import org.example.javamusicapp.controller.userController.dto.ChangePasswordRequest;
 import org.example.javamusicapp.controller.userController.dto.UserResponse;
 import org.example.javamusicapp.model.User;
+import org.example.javamusicapp.service.auth.PrincipalSnapshot;
+import org.example.javamusicapp.service.auth.UserImportService;
 import org.example.javamusicapp.service.auth.UserService;
 import org.example.javamusicapp.service.nachweis.NachweisSecurityService;
 import org.springframework.http.MediaType;
@@ -16,9 +21,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.http.HttpStatus;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.util.List;
+
 /**
  * 👤 **Was geht hier ab?**
  * Dieser Controller ist der Place-to-be für alles, was das eigene User-Profil betrifft.
@@ -36,6 +47,8 @@ import org.springframework.http.HttpStatus;
  * - /{username}/grant-admin**: Einem User Admin-Rechte geben. With great power comes great responsibility.
  * - /{username}/revoke-admin**: Einem User die Admin-Rechte wieder wegnehmen.
  * - /{username} (DELETE)**: Löscht einen kompletten User-Account. Use with caution!
+ * - /admin/bulk-import**: Legt viele Azubis auf einmal an (JSON-Array oder CSV). Die Antwort ist NDJSON,
+ *   eine Zeile pro Eingabezeile mit CREATED/REJECTED/FAILED.
  */
 @Slf4j
 @RestController
@@ -47,6 +60,8 @@ public class UserController {
 
     private final UserService userService;
     private final NachweisSecurityService nachweisSecurityService;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
 
     @Operation(summary = "Passwort ändern", description = "Ändert das Passwort des aktuell angemeldeten Users")
     @PutMapping("/change-password")
@@ -111,9 +126,18 @@ public class UserController {
     @GetMapping("/profile")
     public ResponseEntity<UserResponse> getUserProfile(Authentication authentication) {
         String username = authentication.getName();
-        User user = userService.findByUsername(username);
+        PrincipalSnapshot user = userService.findPrincipalByUsername(username);
 
-        UserResponse response = toUserResponse(user);
+        UserResponse response = new UserResponse(
+                user.getId(),
+                user.getUsername(),
+                user.getName(),
+                user.getEmail(),
+                user.getProfileImageUrl(),
+                user.getAusbildungsjahr(),
+                user.getTelefonnummer(),
+                user.getTeam()
+        );
 
         return ResponseEntity.ok(response);
     }
@@ -220,4 +244,44 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Fehler beim Löschen des Benutzers.");
         }
     }
+
+    @Operation(summary = "Bulk-Import (JSON)", description = "Legt viele Benutzer mit ROLE_USER auf einmal an. Antwort: NDJSON mit einem Ergebnis pro Zeile. Nur für Admins oder Ausbilder.")
+    @PostMapping(value = "/admin/bulk-import", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or @nachweisSecurityService.isAusbilder(authentication)")
+    public ResponseEntity<StreamingResponseBody> bulkImportJson(@RequestBody List<RegistrationRequest> rows,
+            Authentication authentication) {
+        log.info("AUDIT: Bulk-Import von {} Zeilen (JSON) durch {}", rows.size(), authentication.getName());
+        return streamImport(rows);
+    }
+
+    @Operation(summary = "Bulk-Import (CSV)", description = "Wie der JSON-Import, aber als CSV mit Header (username,name,email,password,ausbildungsjahr,telefonnummer,team).")
+    @PostMapping(value = "/admin/bulk-import", consumes = "text/csv", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or @nachweisSecurityService.isAusbilder(authentication)")
+    public ResponseEntity<?> bulkImportCsv(@RequestBody String csv, Authentication authentication) {
+        List<RegistrationRequest> rows;
+        try {
+            rows = userImportService.parseCsv(new StringReader(csv));
+        } catch (IllegalArgumentException | IOException e) {
+            log.warn("Bulk-Import: CSV ungültig: {}", e.getMessage());
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(e.getMessage());
+        }
+        log.info("AUDIT: Bulk-Import von {} Zeilen (CSV) durch {}", rows.size(), authentication.getName());
+        return streamImport(rows);
+    }
+
+    // Jede Ergebniszeile geht sofort raus, der Client sieht den Fortschritt live
+    private ResponseEntity<StreamingResponseBody> streamImport(List<RegistrationRequest> rows) {
+        StreamingResponseBody body = out -> userImportService.importiere(rows, result -> schreibeZeile(out, result));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private void schreibeZeile(OutputStream out, BulkImportResult result) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+    }
 }
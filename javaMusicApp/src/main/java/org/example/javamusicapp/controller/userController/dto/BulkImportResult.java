@@ -0,0 +1,20 @@
+package org.example.javamusicapp.controller.userController.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Eine Zeile im Ergebnis-Report des Bulk-Imports (wird als NDJSON gestreamt).
+ * status: CREATED, REJECTED (Validierung/Duplikat) oder FAILED (DB-Fehler).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResult {
+    private int row;
+    private String username;
+    private String email;
+    private String status;
+    private String message;
+}
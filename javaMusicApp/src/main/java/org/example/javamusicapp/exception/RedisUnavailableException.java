@@ -0,0 +1,16 @@
+package org.example.javamusicapp.exception;
+
+/**
+ * Redis ist gerade nicht erreichbar (Timeout oder Circuit Breaker offen). Wird wie eine Überlastung
+ * behandelt: 503 mit Retry-After.
+ */
+public class RedisUnavailableException extends ServiceOverloadedException {
+
+    public RedisUnavailableException(String message, long retryAfterSeconds) {
+        super(message, retryAfterSeconds);
+    }
+
+    public RedisUnavailableException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, retryAfterSeconds, cause);
+    }
+}
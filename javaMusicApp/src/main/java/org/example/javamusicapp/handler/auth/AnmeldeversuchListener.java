@@ -11,6 +11,11 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.stereotype.Component;
 
+/**
+ * Protokolliert Logins und zählt Fehlversuche pro E-Mail und pro IP. Die IP kommt aus den
+ * `WebAuthenticationDetails`, die der `AuthController` schon mit der per `ClientIpResolver` aufgelösten
+ * Client-IP füllt (nicht mit der Proxy-Adresse).
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -21,9 +26,9 @@ public class AnmeldeversuchListener {
     @EventListener
     public void onAuthenticationSuccess(AuthenticationSuccessEvent event) {
         Object principal = event.getAuthentication().getPrincipal();
-        String ip = "Unbekannt";
-        if (event.getAuthentication().getDetails() instanceof WebAuthenticationDetails) {
-            ip = ((WebAuthenticationDetails) event.getAuthentication().getDetails()).getRemoteAddress();
+        String ip = clientIp(event.getAuthentication().getDetails());
+        if (ip == null) {
+            ip = "Unbekannt";
         }
 
         if (principal instanceof UserDetails) {
@@ -36,15 +41,17 @@ public class AnmeldeversuchListener {
     @EventListener
     public void onAuthenticationFailure(AuthenticationFailureBadCredentialsEvent event) {
         Object principal = event.getAuthentication().getPrincipal();
-        String ip = "Unbekannt";
-        if (event.getAuthentication().getDetails() instanceof WebAuthenticationDetails) {
-            ip = ((WebAuthenticationDetails) event.getAuthentication().getDetails()).getRemoteAddress();
-        }
+        String clientIp = clientIp(event.getAuthentication().getDetails());
 
         if (principal instanceof String) {
             String email = (String) principal;
-            log.warn("AUDIT: Fehlgeschlagene Anmeldung für E-Mail '{}' von IP-Adresse: {}. Grund: {}", email, ip, event.getException().getMessage());
-            anmeldeversuchService.anmeldungFehlgeschlagen(email);
+            log.warn("AUDIT: Fehlgeschlagene Anmeldung für E-Mail '{}' von IP-Adresse: {}. Grund: {}", email,
+                    clientIp != null ? clientIp : "Unbekannt", event.getException().getMessage());
+            anmeldeversuchService.anmeldungFehlgeschlagen(email, clientIp);
         }
     }
+
+    private static String clientIp(Object details) {
+        return details instanceof WebAuthenticationDetails webDetails ? webDetails.getRemoteAddress() : null;
+    }
 }
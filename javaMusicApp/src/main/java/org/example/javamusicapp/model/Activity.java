@@ -10,10 +10,15 @@ import java.math.BigDecimal;
 import java.util.UUID;
 
 @Entity
-@Table(name = "activity")
+// Eine Zelle (Tag, Slot) pro Nachweis nur einmal, siehe Migration V6
+@Table(name = "activity", indexes = @Index(name = "uk_activity_nachweis_day_slot",
+        columnList = "nachweis_id, day, slot", unique = true))
 @Data
 @NoArgsConstructor
 public class Activity {
+    // So viele Zeilen hat ein Tag im Wochenplan-Editor
+    public static final int MAX_SLOT = 5;
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -26,7 +31,7 @@ public class Activity {
     @Enumerated(EnumType.STRING)
     private Weekday day;
 
-    private Integer slot; // 1..5
+    private Integer slot; // 1..MAX_SLOT
 
     @Column(length = 2000)
     private String description;
@@ -11,7 +11,6 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.UUID;
 
 @Entity
@@ -51,6 +50,10 @@ public class Nachweis {
         private String signaturAzubi;
         private String signaturAusbilder;
 
+        // Stunden pro Tag + Woche in Minuten, beim Schreiben aktualisiert (siehe Wochenminuten)
+        @Embedded
+        private Wochenminuten wochenminuten = new Wochenminuten();
+
         @JsonManagedReference
         @OneToMany(mappedBy = "nachweis", cascade = CascadeType.ALL, orphanRemoval = true)
         private List<Activity> activities = new ArrayList<>();
@@ -76,6 +79,7 @@ public class Nachweis {
                         newActivity.setNachweis(this);
                         this.activities.add(newActivity);
                 }
+                this.wochenminuten = Wochenminuten.aus(this.activities);
         }
 
         public void addActivity(Activity activity) {
@@ -86,11 +90,20 @@ public class Nachweis {
         }
 
 
+        /**
+         * Rechnet die gespeicherten Summen aus den Aktivitäten neu. Muss nach jeder Änderung an den Aktivitäten
+         * laufen, beim ersten Speichern passiert das automatisch.
+         */
+        @PrePersist
+        public void aktualisiereSummen() {
+                this.wochenminuten = Wochenminuten.aus(activities);
+        }
+
         public BigDecimal totalForDay(Weekday day) {
-                return activities.stream()
-                                .filter(a -> a.getDay() == day)
-                                .map(Activity::getHours)
-                                .filter(Objects::nonNull)
-                                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                return Wochenminuten.alsStunden(wochenminuten.fuerTag(day));
+        }
+
+        public BigDecimal totalForWeek() {
+                return Wochenminuten.alsStunden(wochenminuten.getGesamt());
         }
 }
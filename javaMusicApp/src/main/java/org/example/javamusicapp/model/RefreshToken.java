@@ -4,31 +4,25 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.data.annotation.Id; // NEUER Import
-import org.springframework.data.redis.core.RedisHash; // NEUER Import
-import org.springframework.data.redis.core.index.Indexed;
 
 import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * Ein ausgestellter Refresh Token. Liegt NICHT mehr als `@RedisHash` in Redis, sondern wird vom
+ * `RefreshTokenService` als schlichter Key `rt:<token> -> userId` mit nativer TTL gespeichert.
+ * Diese Klasse ist nur noch der Rückgabewert.
+ */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-// Wir definieren den Hash-Namen und die Lebensdauer in Sekunden (hier 30 Tage)
-@RedisHash(value = "refresh_token", timeToLive = 2592000L)
 public class RefreshToken {
 
-    // @Id kommt jetzt von Spring Data Commons/Redis, NICHT von JPA
-    @Id
-    private String id;
-
-    @Indexed // Wichtig! Damit findByToken() funktioniert
     private String token; // Der eigentliche Refresh-String
 
-    // KEIN @OneToOne MEHR: Wir speichern die User-ID oder das User-Objekt direkt
     private UUID userId;
 
     private Instant expiryDate;
 
-}
\ No newline at end of file
+}
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.example.javamusicapp.model.enums.ERole;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.UUID;
 
@@ -11,6 +13,8 @@ import java.util.UUID;
 @Data
 @Table(name = "roles")
 @NoArgsConstructor
+// Rollen werden nur beim Start angelegt und nie geändert -> READ_ONLY im Second-Level-Cache
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "role")
 public class Role {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
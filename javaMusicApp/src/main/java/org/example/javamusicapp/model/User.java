@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,6 +24,7 @@ import java.util.ArrayList;
 @NoArgsConstructor
 @JsonIgnoreProperties({ "todos", "password", "authorities", "accountNonExpired", "accountNonLocked",
         "credentialsNonExpired", "enabled", "nachweiseAlsAzubi", "nachweiseAlsAusbilder" })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 public class User implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -48,7 +51,12 @@ public class User implements UserDetails {
     @Column(name = "account_gesperrt_bis")
     private java.time.LocalDateTime accountGesperrtBis;
 
+    // Wird bei Rollen-Änderung, Passwort-Wechsel usw. hochgezählt -> alle älteren JWTs sind damit ungültig
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer default 0")
+    private int tokenVersion = 0;
+
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user.roles")
     @JoinTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "role_id"))
     private Set<Role> roles = new HashSet<>();
 
@@ -0,0 +1,102 @@
+package org.example.javamusicapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.javamusicapp.model.enums.Weekday;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+
+/**
+ * ⏲️ **Was geht hier ab?**
+ * Die Stunden-Summen eines Nachweises, direkt in der `nachweis`-Tabelle gespeichert: eine Spalte pro Wochentag plus
+ * die Wochensumme, jeweils in ganzen Minuten (`int` statt `BigDecimal`, gerundet pro Aktivität).
+ *
+ * Vorher hat `Nachweis.totalForDay` für jeden Tag die komplette Aktivitäten-Liste durchgestreamt (das PDF allein
+ * 7x pro Render), und jede Auswertung musste alle Aktivitäten laden. Jetzt stehen die Summen am Nachweis und
+ * werden beim Schreiben aktualisiert (`Nachweis.aktualisiereSummen()` bzw. `NachweisRepository.berechneSummenNeu`).
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+public class Wochenminuten {
+
+    private static final BigDecimal SECHZIG = BigDecimal.valueOf(60);
+
+    @Column(name = "minuten_montag", nullable = false, columnDefinition = "integer default 0")
+    private int montag;
+
+    @Column(name = "minuten_dienstag", nullable = false, columnDefinition = "integer default 0")
+    private int dienstag;
+
+    @Column(name = "minuten_mittwoch", nullable = false, columnDefinition = "integer default 0")
+    private int mittwoch;
+
+    @Column(name = "minuten_donnerstag", nullable = false, columnDefinition = "integer default 0")
+    private int donnerstag;
+
+    @Column(name = "minuten_freitag", nullable = false, columnDefinition = "integer default 0")
+    private int freitag;
+
+    @Column(name = "minuten_samstag", nullable = false, columnDefinition = "integer default 0")
+    private int samstag;
+
+    @Column(name = "minuten_sonntag", nullable = false, columnDefinition = "integer default 0")
+    private int sonntag;
+
+    @Column(name = "minuten_gesamt", nullable = false, columnDefinition = "integer default 0")
+    private int gesamt;
+
+    public static Wochenminuten aus(Collection<Activity> activities) {
+        int[] proTag = new int[Weekday.values().length];
+        int gesamt = 0;
+        for (Activity activity : activities) {
+            if (activity == null || activity.getHours() == null) {
+                continue;
+            }
+            int minuten = minuten(activity.getHours());
+            gesamt += minuten;
+            if (activity.getDay() != null) {
+                proTag[activity.getDay().ordinal()] += minuten;
+            }
+        }
+
+        Wochenminuten summen = new Wochenminuten();
+        summen.montag = proTag[Weekday.MONDAY.ordinal()];
+        summen.dienstag = proTag[Weekday.TUESDAY.ordinal()];
+        summen.mittwoch = proTag[Weekday.WEDNESDAY.ordinal()];
+        summen.donnerstag = proTag[Weekday.THURSDAY.ordinal()];
+        summen.freitag = proTag[Weekday.FRIDAY.ordinal()];
+        summen.samstag = proTag[Weekday.SATURDAY.ordinal()];
+        summen.sonntag = proTag[Weekday.SUNDAY.ordinal()];
+        summen.gesamt = gesamt;
+        return summen;
+    }
+
+    public int fuerTag(Weekday day) {
+        return switch (day) {
+            case MONDAY -> montag;
+            case TUESDAY -> dienstag;
+            case WEDNESDAY -> mittwoch;
+            case THURSDAY -> donnerstag;
+            case FRIDAY -> freitag;
+            case SATURDAY -> samstag;
+            case SUNDAY -> sonntag;
+        };
+    }
+
+    // Muss zur Rundung in NachweisRepository.SUMMEN_UPDATE (und V3) passen: pro Aktivität auf ganze Minuten
+    public static int minuten(BigDecimal stunden) {
+        return stunden.multiply(SECHZIG).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+
+    // Zurück in Stunden für Anzeige/PDF: 480 -> 8.0, 450 -> 7.5, 20 -> 0.33
+    public static BigDecimal alsStunden(int minuten) {
+        BigDecimal stunden = BigDecimal.valueOf(minuten).divide(SECHZIG, 2, RoundingMode.HALF_UP);
+        BigDecimal kurz = stunden.stripTrailingZeros();
+        return kurz.scale() < 1 ? stunden.setScale(1, RoundingMode.UNNECESSARY) : kurz;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.javamusicapp.repository;
+
+import jakarta.persistence.QueryHint;
+import org.example.javamusicapp.controller.nachweisController.dto.StundenAuswertungDto;
+import org.example.javamusicapp.model.Activity;
+import org.example.javamusicapp.model.enums.Weekday;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ActivityRepository extends JpaRepository<Activity, UUID> {
+    // Eine Zelle im Wochenplan, für Einzel-Updates (Autosave) ohne den ganzen Nachweis zu laden
+    Optional<Activity> findFirstByNachweisIdAndDayAndSlot(UUID nachweisId, Weekday day, Integer slot);
+
+    // Autosave in eine leere Zelle. Kommen zwei gleichzeitig, legt der Unique-Index (V6) nur eine Zeile an und der
+    // zweite landet im UPDATE – wie beim PATCH bleiben dabei nicht mitgeschickte Felder (null) unverändert.
+    // Ein abgefangener Constraint-Fehler ginge nicht: danach ist die ganze Postgres-Transaktion abgebrochen.
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "activity"))
+    @Query(value = "insert into activity (id, nachweis_id, day, slot, description, hours, section)"
+            + " values (:id, :nachweisId, :day, :slot, :description, :hours, :section)"
+            + " on conflict (nachweis_id, day, slot) do update set"
+            + " description = coalesce(excluded.description, activity.description),"
+            + " hours = coalesce(excluded.hours, activity.hours),"
+            + " section = coalesce(excluded.section, activity.section)", nativeQuery = true)
+    int fuegeEinOderAktualisiere(@Param("id") UUID id, @Param("nachweisId") UUID nachweisId, @Param("day") String day,
+            @Param("slot") int slot, @Param("description") String description, @Param("hours") BigDecimal hours,
+            @Param("section") String section);
+
+    // Alle Aktivitäten der Nachweise eines Azubis in einem Statement, muss vor dem Löschen der Nachweise laufen
+    @Transactional
+    @Modifying
+    @Query("delete from Activity a where a.nachweis.id in (select n.id from Nachweis n where n.azubi.id = :azubiId)")
+    int loescheAlleVonAzubi(@Param("azubiId") UUID azubiId);
+
+    // Stunden pro Azubi und Bereich für Nachweise, deren Woche im Zeitraum beginnt. Aggregiert in der DB.
+    String STUNDEN_AUSWERTUNG = "select new org.example.javamusicapp.controller.nachweisController.dto.StundenAuswertungDto("
+            + "z.id, z.name, a.section, sum(a.hours))"
+            + " from Activity a join a.nachweis n join n.azubi z"
+            + " where n.datumStart >= :von and n.datumStart <= :bis";
+
+    @Query(STUNDEN_AUSWERTUNG + " group by z.id, z.name, a.section order by z.name, a.section")
+    List<StundenAuswertungDto> summiereStunden(@Param("von") LocalDate von, @Param("bis") LocalDate bis);
+
+    @Query(STUNDEN_AUSWERTUNG + " and z.id = :azubiId group by z.id, z.name, a.section order by a.section")
+    List<StundenAuswertungDto> summiereStundenVonAzubi(@Param("azubiId") UUID azubiId, @Param("von") LocalDate von,
+            @Param("bis") LocalDate bis);
+}
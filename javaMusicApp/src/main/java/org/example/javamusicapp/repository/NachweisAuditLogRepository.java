@@ -1,11 +1,43 @@
 package org.example.javamusicapp.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.javamusicapp.model.NachweisAuditLog;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface NachweisAuditLogRepository extends JpaRepository<NachweisAuditLog, Long> {
     org.springframework.data.domain.Page<NachweisAuditLog> findAllByNachweisId(java.util.UUID nachweisId,
             org.springframework.data.domain.Pageable pageable);
+
+    // Slice-Varianten (kein count-Query), neueste zuerst – passt zum Index (nachweis_id, aktions_zeit)
+    org.springframework.data.domain.Slice<NachweisAuditLog> findByNachweisIdOrderByAktionsZeitDesc(
+            java.util.UUID nachweisId, org.springframework.data.domain.Pageable pageable);
+
+    org.springframework.data.domain.Slice<NachweisAuditLog> findAllByOrderByAktionsZeitDesc(
+            org.springframework.data.domain.Pageable pageable);
+
+    // Massen-Audit: ein INSERT ... SELECT für alle betroffenen Nachweise statt ein INSERT (plus JSON) pro Nachweis.
+    // Muss VOR dem Löschen laufen, solange die Nachweise noch da sind.
+    String MASSEN_AUDIT = "insert into nachweis_audit_log (id, nachweis_id, aktion, aktions_zeit, benutzer_name)"
+            + " select gen_random_uuid(), n.id, :aktion, localtimestamp, :benutzerName from nachweis n";
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "nachweis_audit_log"))
+    @Query(value = MASSEN_AUDIT + " where n.azubi_id = :azubiId", nativeQuery = true)
+    int loggeAktionFuerAlleVonAzubi(@Param("azubiId") java.util.UUID azubiId, @Param("aktion") String aktion,
+            @Param("benutzerName") String benutzerName);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "nachweis_audit_log"))
+    @Query(value = MASSEN_AUDIT, nativeQuery = true)
+    int loggeAktionFuerAlle(@Param("aktion") String aktion, @Param("benutzerName") String benutzerName);
 }
@@ -1,14 +1,31 @@
 package org.example.javamusicapp.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.javamusicapp.controller.nachweisController.dto.NachweisSummaryDto;
 import org.example.javamusicapp.model.Nachweis;
 import org.example.javamusicapp.model.enums.EStatus;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Repository
 public interface NachweisRepository extends JpaRepository<Nachweis, UUID> {
@@ -21,4 +38,132 @@ public interface NachweisRepository extends JpaRepository<Nachweis, UUID> {
     Page<Nachweis> findAllByStatus(EStatus status, Pageable pageable);
 
     boolean existsByAusbilderUsername(String username);
+
+    long countByAzubiId(UUID azubiId);
+
+    long countByAzubiIdAndStatus(UUID azubiId, EStatus status);
+
+    long countByStatus(EStatus status);
+
+    // Listen-Seiten in zwei Phasen: erst nur die IDs der Seite (paginiert, ohne Joins), dann die Entities
+    // samt Azubi, Ausbilder, Rollen und Aktivitäten in EINER Query. So bleibt es bei ~3 Statements pro Seite.
+    @Query(value = "select n.id from Nachweis n where n.azubi.id = :azubiId order by n.datumStart desc, n.id",
+            countQuery = "select count(n) from Nachweis n where n.azubi.id = :azubiId")
+    Page<UUID> findIdsByAzubiId(@Param("azubiId") UUID azubiId, Pageable pageable);
+
+    @Query(value = "select n.id from Nachweis n order by n.datumStart desc, n.id",
+            countQuery = "select count(n) from Nachweis n")
+    Page<UUID> findAllIds(Pageable pageable);
+
+    // Listen-Ansicht: nur die Spalten, die die Tabelle braucht, direkt als DTO. Keine Entities, kein Dirty-Checking,
+    // keine Aktivitäten und keine kompletten User samt Rollen im JSON.
+    String SUMMARY_SELECT = "select new org.example.javamusicapp.controller.nachweisController.dto.NachweisSummaryDto("
+            + "n.id, n.nummer, n.datumStart, n.datumEnde, n.status, a.id, a.name, b.id, b.name)"
+            + " from Nachweis n left join n.azubi a left join n.ausbilder b";
+
+    @Query(value = SUMMARY_SELECT + " where a.id = :azubiId order by n.datumStart desc, n.id",
+            countQuery = "select count(n) from Nachweis n where n.azubi.id = :azubiId")
+    Page<NachweisSummaryDto> findSummariesByAzubiId(@Param("azubiId") UUID azubiId, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + " where a.id = :azubiId and n.status = :status order by n.datumStart desc, n.id",
+            countQuery = "select count(n) from Nachweis n where n.azubi.id = :azubiId and n.status = :status")
+    Page<NachweisSummaryDto> findSummariesByAzubiIdAndStatus(@Param("azubiId") UUID azubiId,
+            @Param("status") EStatus status, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + " where n.status = :status order by n.datumStart desc, n.id",
+            countQuery = "select count(n) from Nachweis n where n.status = :status")
+    Page<NachweisSummaryDto> findSummariesByStatus(@Param("status") EStatus status, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + " order by n.datumStart desc, n.id",
+            countQuery = "select count(n) from Nachweis n")
+    Page<NachweisSummaryDto> findAllSummaries(Pageable pageable);
+
+    // Dieselben Listen als Slice fürs Infinite Scrolling: eine Zeile mehr statt count(*)
+    @Query(SUMMARY_SELECT + " where a.id = :azubiId order by n.datumStart desc, n.id")
+    Slice<NachweisSummaryDto> findSummarySliceByAzubiId(@Param("azubiId") UUID azubiId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + " where a.id = :azubiId and n.status = :status order by n.datumStart desc, n.id")
+    Slice<NachweisSummaryDto> findSummarySliceByAzubiIdAndStatus(@Param("azubiId") UUID azubiId,
+            @Param("status") EStatus status, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + " where n.status = :status order by n.datumStart desc, n.id")
+    Slice<NachweisSummaryDto> findSummarySliceByStatus(@Param("status") EStatus status, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + " order by n.datumStart desc, n.id")
+    Slice<NachweisSummaryDto> findAllSummarySlice(Pageable pageable);
+
+    // Detail-Ansicht: ein Nachweis komplett, in einer Query
+    @EntityGraph(attributePaths = { "azubi", "azubi.roles", "ausbilder", "ausbilder.roles", "activities" })
+    @Query("select n from Nachweis n where n.id = :id")
+    Optional<Nachweis> findWithDetailsById(@Param("id") UUID id);
+
+    @EntityGraph(attributePaths = { "azubi", "azubi.roles", "ausbilder", "ausbilder.roles", "activities" })
+    @Query("select distinct n from Nachweis n where n.id in :ids")
+    List<Nachweis> findAllWithDetailsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Lädt zu einer Seite IDs die kompletten Nachweise (eine Query) und behält Reihenfolge und Seiten-Infos bei.
+     */
+    default Page<Nachweis> ladeSeiteMitDetails(Page<UUID> ids) {
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), ids.getPageable(), ids.getTotalElements());
+        }
+        Map<UUID, Nachweis> byId = findAllWithDetailsByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Nachweis::getId, Function.identity(), (a, b) -> a));
+        List<Nachweis> content = ids.getContent().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+    }
+
+    // Status direkt per UPDATE zurücksetzen, ohne den Nachweis zu laden. Liefert 0, wenn er schon passt.
+    @Transactional
+    @Modifying
+    @Query("update Nachweis n set n.status = :status where n.id = :id and (n.status is null or n.status <> :status)")
+    int setzeStatus(@Param("id") UUID id, @Param("status") EStatus status);
+
+    // Stunden-Summen (Wochenminuten) direkt in der DB aus den Aktivitäten neu rechnen, ohne Nachweis oder Aktivitäten
+    // zu laden. Rundung wie Wochenminuten.minuten(): pro Aktivität auf ganze Minuten.
+    String SUMMEN_UPDATE = "update nachweis n set"
+            + " minuten_montag = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'MONDAY'), 0),"
+            + " minuten_dienstag = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'TUESDAY'), 0),"
+            + " minuten_mittwoch = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'WEDNESDAY'), 0),"
+            + " minuten_donnerstag = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'THURSDAY'), 0),"
+            + " minuten_freitag = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'FRIDAY'), 0),"
+            + " minuten_samstag = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'SATURDAY'), 0),"
+            + " minuten_sonntag = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'SUNDAY'), 0),"
+            + " minuten_gesamt = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id), 0)"
+            + " where n.id = :id";
+
+    // flushAutomatically: geänderte Aktivitäten müssen vorher in der DB sein. Die Query-Spaces sagen Hibernate, dass
+    // nur die nachweis-Tabelle betroffen ist – sonst würde es bei nativen Updates den kompletten L2-Cache leeren.
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "nachweis"))
+    @Query(value = SUMMEN_UPDATE, nativeQuery = true)
+    int berechneSummenNeu(@Param("id") UUID id);
+
+    // Massen-Löschen per DELETE ... WHERE statt Entity für Entity (Aktivitäten vorher über ActivityRepository)
+    @Query("select n.id from Nachweis n where n.azubi.id = :azubiId")
+    List<UUID> findAllIdsByAzubiId(@Param("azubiId") UUID azubiId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Nachweis n where n.azubi.id = :azubiId")
+    int loescheAlleVonAzubi(@Param("azubiId") UUID azubiId);
+
+    // Wird ein Ausbilder gelöscht, bleiben die Nachweise seiner Azubis erhalten, nur ohne Ausbilder
+    @Transactional
+    @Modifying
+    @Query("update Nachweis n set n.ausbilder = null where n.ausbilder.id = :ausbilderId")
+    int entferneAusbilder(@Param("ausbilderId") UUID ausbilderId);
+
+    // Nur die Azubi-ID für Ownership-Checks, ohne Nachweis samt EAGER-Usern zu laden
+    @Query("select n.azubi.id from Nachweis n where n.id = :id")
+    Optional<UUID> findAzubiIdById(@Param("id") UUID id);
+
+    // Nur der Status, damit der Autosave weiß, ob er einen bewerteten Nachweis zurücksetzt
+    @Query("select n.status from Nachweis n where n.id = :id")
+    Optional<EStatus> findStatusById(@Param("id") UUID id);
 }
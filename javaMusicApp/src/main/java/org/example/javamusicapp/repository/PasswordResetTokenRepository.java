@@ -3,9 +3,14 @@ package org.example.javamusicapp.repository;
 import org.example.javamusicapp.model.PasswordResetToken;
 import org.example.javamusicapp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
@@ -13,4 +18,9 @@ public interface PasswordResetTokenRepository extends JpaRepository<PasswordRese
     Optional<PasswordResetToken> findByToken(String token);
 
     Optional<PasswordResetToken> findByUser(User user);
+
+    @Transactional
+    @Modifying
+    @Query("delete from PasswordResetToken t where t.user.id = :userId")
+    int loescheAlleVonUser(@Param("userId") UUID userId);
 }
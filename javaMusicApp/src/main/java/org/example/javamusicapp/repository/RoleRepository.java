@@ -3,7 +3,10 @@ package org.example.javamusicapp.repository;
 import org.example.javamusicapp.model.Role;
 import org.example.javamusicapp.model.enums.ERole;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,5 +14,10 @@ import java.util.UUID;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, UUID> {
+    // Läuft bei jeder Registrierung und Rollen-Änderung -> Ergebnis im Query-Cache, die Rolle selbst im Entity-Cache
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "role-queries")
+    })
     Optional<Role> findByName(ERole name);
 }
@@ -2,8 +2,14 @@ package org.example.javamusicapp.repository;
 
 import org.example.javamusicapp.model.ToDo;
 import org.example.javamusicapp.model.enums.ETodo;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,4 +23,14 @@ public interface ToDoRepository extends JpaRepository<ToDo, UUID> {
 
     // Find todos for a user by username
     List<ToDo> findByUserUsername(String username);
+
+    // Slice fürs Infinite Scrolling: User gleich mitladen (fürs Response-DTO), kein count(*)
+    @Query("select t from ToDo t join fetch t.user u where u.username = :username order by t.title, t.id")
+    Slice<ToDo> findSliceByUserUsername(@Param("username") String username, Pageable pageable);
+
+    // Beim Löschen eines Users: ein DELETE statt die todos-Collection zu laden und einzeln zu kaskadieren
+    @Transactional
+    @Modifying
+    @Query("delete from ToDo t where t.user.id = :userId")
+    int loescheAlleVonUser(@Param("userId") UUID userId);
 }
@@ -1,8 +1,15 @@
 package org.example.javamusicapp.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.javamusicapp.model.User;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.example.javamusicapp.model.enums.ERole;
 
 import java.util.Optional;
@@ -14,13 +21,47 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     Boolean existsByUsername(String username);
 
-    Boolean existsByEmail(String email);
+    // E-Mails case-insensitive vergleichen, passend zum Index auf lower(email) (siehe V2-Migration)
+    @Query("select count(u) > 0 from User u where lower(u.email) = lower(:email)")
+    Boolean existsByEmail(@Param("email") String email);
 
-    Optional<User> findByEmail(String email);
+    @Query("select u from User u where lower(u.email) = lower(:email)")
+    Optional<User> findByEmail(@Param("email") String email);
 
     // Count users that have a role with the given enum name
     long countByRoles_Name(ERole roleName);
 
     java.util.List<User> findAllByRoles_Name(ERole roleName);
 
+    // Nur die Token-Version, ohne den ganzen User samt Rollen zu laden
+    @Query("select u.tokenVersion from User u where u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") UUID id);
+
+    // Set-basierte Existenz-Checks für den Bulk-Import (ein Query statt N exists-Calls)
+    @Query("select u.username from User u where u.username in :usernames")
+    java.util.List<String> findExistingUsernames(@Param("usernames") java.util.Collection<String> usernames);
+
+    // Erwartet kleingeschriebene E-Mails und liefert sie kleingeschrieben zurück (wie existsByEmail/findByEmail)
+    @Query("select lower(u.email) from User u where lower(u.email) in :emails")
+    java.util.List<String> findExistingEmails(@Param("emails") java.util.Collection<String> emails);
+
+    // Gezieltes Update nur der Sperr-Spalten, statt den ganzen User zu laden und zu speichern
+    @Transactional
+    @Modifying
+    @Query("update User u set u.accountGesperrtBis = :bis, u.fehlgeschlageneAnmeldeversuche = :versuche where lower(u.email) = lower(:email)")
+    int sperreAccount(@Param("email") String email, @Param("bis") java.time.LocalDateTime bis,
+            @Param("versuche") int versuche);
+
+    // User-Löschung in Abhängigkeits-Reihenfolge: erst die Rollen-Zuordnungen (Join-Tabelle, daher nativ), dann
+    // der User selbst. Todos, Tokens und Nachweise müssen da schon weg sein.
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_roles"))
+    @Query(value = "delete from user_roles where user_id = :userId", nativeQuery = true)
+    int loescheRollenZuordnungen(@Param("userId") UUID userId);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from User u where u.id = :userId")
+    int loescheById(@Param("userId") UUID userId);
 }
@@ -7,6 +7,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -42,6 +43,7 @@ public class RoleAuditService {
         repository.save(audit);
     }
 
+    @Transactional(readOnly = true)
     public Page<RoleAudit> list(Pageable pageable) {
         // Ensure sort by performedAt desc unless caller provided a sort
         Pageable effective = pageable;
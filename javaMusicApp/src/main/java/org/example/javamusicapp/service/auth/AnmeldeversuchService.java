@@ -1,13 +1,21 @@
 package org.example.javamusicapp.service.auth;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.javamusicapp.config.RedisCircuitBreaker;
 import org.example.javamusicapp.model.User;
 import org.example.javamusicapp.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 🚨 **Was geht hier ab?**
@@ -16,49 +24,109 @@ import java.util.Optional;
  *
  * So funktioniert's:
  * - **anmeldungFehlgeschlagen()**: Jedes Mal, wenn ein Login failt, zählt der Counter für die
- *   E-Mail-Adresse hoch. Nach zu vielen Fehlversuchen (z.B. 5) wird der Account für eine
- *   bestimmte Zeit (z.B. 15 Minuten) gesperrt. Sheesh!
- * - **anmeldungErfolgreich()**: Wenn der Login erfolgreich war, wird der Counter wieder auf 0
+ *   E-Mail-Adresse UND für die IP hoch. Nach zu vielen Fehlversuchen (5 pro E-Mail, 20 pro IP) wird
+ *   die E-Mail bzw. IP für 15 Minuten gesperrt. Sheesh!
+ * - **anmeldungErfolgreich()**: Wenn der Login erfolgreich war, wird der E-Mail-Counter wieder auf 0
  *   gesetzt. Alles wieder fresh.
- * - **istGesperrt()**: Checkt, ob ein Account gerade eine Zwangspause einlegen muss.
+ * - **istGesperrt()**: Checkt, ob E-Mail oder IP gerade eine Zwangspause einlegen müssen.
+ *
+ * Die Counter liegen NICHT mehr in `app_user`, sondern in Redis (`INCR` + TTL, ein Lua-Call pro Fehlversuch).
+ * Ist Redis nicht da (oder der `RedisCircuitBreaker` offen), übernimmt eine lokale Map. In die DB wird nur noch geschrieben, wenn ein Account
+ * tatsächlich gesperrt wird – ein erfolgreicher Login kostet keinen einzigen DB-Write mehr, und
+ * Credential-Stuffing-Wellen werden nicht zum DB-Schreibsturm.
  *
  * Das macht es für Hacker ultra nervig, einfach Tausende Passwörter durchzuprobieren.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class AnmeldeversuchService {
 
     private static final int MAX_FEHLVERSUCHE = 5;
+    private static final int MAX_FEHLVERSUCHE_PRO_IP = 20;
     private static final int SPERRDAUER_MINUTEN = 15;
+    private static final long SPERRDAUER_MS = SPERRDAUER_MINUTEN * 60_000L;
+    private static final int MAX_LOKALE_EINTRAEGE = 100_000;
+
+    private static final String FAIL_PREFIX = "lockout:fail:";
+    private static final String LOCK_PREFIX = "lockout:lock:";
+
+    // KEYS[1] = Fehlversuch-Counter, KEYS[2] = Sperr-Key; ARGV = max, fensterMs, sperrMs
+    // Rückgabe: aktuelle Anzahl, oder -1, wenn genau dieser Versuch die Sperre ausgelöst hat
+    private static final DefaultRedisScript<Long> FEHLVERSUCH_SCRIPT = new DefaultRedisScript<>("""
+            local n = redis.call('INCR', KEYS[1])
+            if n == 1 then
+              redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            if n >= tonumber(ARGV[1]) then
+              redis.call('DEL', KEYS[1])
+              if redis.call('SET', KEYS[2], '1', 'PX', ARGV[3], 'NX') then
+                return -1
+              end
+            end
+            return n
+            """, Long.class);
 
     private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker redisCircuitBreaker;
 
-    public void anmeldungErfolgreich(String email) {
-        userRepository.findByEmail(email).ifPresent(user -> {
-            user.setFehlgeschlageneAnmeldeversuche(0);
-            user.setAccountGesperrtBis(null);
-            userRepository.save(user);
-        });
+    // Fallback ohne Redis: key -> Zähler
+    private final Map<String, Zaehler> lokal = new ConcurrentHashMap<>();
+
+    public AnmeldeversuchService(UserRepository userRepository,
+            @Autowired(required = false) StringRedisTemplate redisTemplate,
+            RedisCircuitBreaker redisCircuitBreaker) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.redisCircuitBreaker = redisCircuitBreaker;
     }
 
-    public void anmeldungFehlgeschlagen(String email) {
-        userRepository.findByEmail(email).ifPresent(user -> {
-            int versuche = user.getFehlgeschlageneAnmeldeversuche() + 1;
-            user.setFehlgeschlageneAnmeldeversuche(versuche);
-            if (versuche >= MAX_FEHLVERSUCHE) {
-                user.setAccountGesperrtBis(LocalDateTime.now().plusMinutes(SPERRDAUER_MINUTEN));
-                log.warn("AUDIT: Account für E-Mail '{}' wurde für {} Minuten gesperrt.", email, SPERRDAUER_MINUTEN);
+    public void anmeldungErfolgreich(String email) {
+        String key = emailKey(email);
+        if (redisTemplate != null) {
+            try {
+                redisCircuitBreaker.execute(() -> redisTemplate.delete(FAIL_PREFIX + key));
+                return;
+            } catch (Exception e) {
+                log.debug("Lockout-Store: Redis nicht erreichbar, nutze lokale Map: {}", e.getMessage());
             }
-            userRepository.save(user);
-        });
+        }
+        lokal.remove(key);
+    }
+
+    public void anmeldungFehlgeschlagen(String email, String ip) {
+        if (registriereFehlversuch(emailKey(email), MAX_FEHLVERSUCHE)) {
+            log.warn("AUDIT: Account für E-Mail '{}' wurde für {} Minuten gesperrt.", email, SPERRDAUER_MINUTEN);
+            sperreInDb(email);
+        }
+        if (ip != null && registriereFehlversuch(ipKey(ip), MAX_FEHLVERSUCHE_PRO_IP)) {
+            log.warn("AUDIT: IP-Adresse {} wurde nach {} Fehlversuchen für {} Minuten gesperrt.", ip,
+                    MAX_FEHLVERSUCHE_PRO_IP, SPERRDAUER_MINUTEN);
+        }
     }
 
-    public boolean istGesperrt(String email) {
-        Optional<User> userOptional = userRepository.findByEmail(email);
-        if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            return user.getAccountGesperrtBis() != null && user.getAccountGesperrtBis().isAfter(LocalDateTime.now());
+    public boolean istGesperrt(String email, String ip) {
+        List<String> keys = new ArrayList<>(2);
+        keys.add(emailKey(email));
+        if (ip != null) {
+            keys.add(ipKey(ip));
+        }
+        if (redisTemplate != null) {
+            try {
+                // Ein EXISTS für beide Keys
+                Long gesperrt = redisCircuitBreaker.execute(() -> redisTemplate.countExistingKeys(
+                        keys.stream().map(k -> LOCK_PREFIX + k).toList()));
+                return gesperrt != null && gesperrt > 0;
+            } catch (Exception e) {
+                log.debug("Lockout-Store: Redis nicht erreichbar, nutze lokale Map: {}", e.getMessage());
+            }
+        }
+        long now = System.currentTimeMillis();
+        for (String key : keys) {
+            Zaehler z = lokal.get(key);
+            if (z != null && z.gesperrtBis > now) {
+                return true;
+            }
         }
         return false;
     }
@@ -66,4 +134,72 @@ public class AnmeldeversuchService {
     public Optional<User> getUserByEmail(String email) {
         return userRepository.findByEmail(email);
     }
+
+    /**
+     * @return {@code true}, wenn genau dieser Fehlversuch die Sperre ausgelöst hat.
+     */
+    private boolean registriereFehlversuch(String key, int max) {
+        if (redisTemplate != null) {
+            try {
+                Long n = redisCircuitBreaker.execute(() -> redisTemplate.execute(FEHLVERSUCH_SCRIPT,
+                        List.of(FAIL_PREFIX + key, LOCK_PREFIX + key),
+                        Integer.toString(max), Long.toString(SPERRDAUER_MS), Long.toString(SPERRDAUER_MS)));
+                return n != null && n == -1L;
+            } catch (Exception e) {
+                log.debug("Lockout-Store: Redis nicht erreichbar, nutze lokale Map: {}", e.getMessage());
+            }
+        }
+        return registriereLokal(key, max);
+    }
+
+    private boolean registriereLokal(String key, int max) {
+        long now = System.currentTimeMillis();
+        if (lokal.size() >= MAX_LOKALE_EINTRAEGE) {
+            lokal.values().removeIf(z -> z.fensterBis <= now && z.gesperrtBis <= now);
+        }
+        boolean[] neuGesperrt = new boolean[1];
+        lokal.compute(key, (k, z) -> {
+            if (z == null || (z.fensterBis <= now && z.gesperrtBis <= now)) {
+                z = new Zaehler(now + SPERRDAUER_MS);
+            }
+            if (z.gesperrtBis > now) {
+                return z;
+            }
+            z.versuche++;
+            if (z.versuche >= max) {
+                z.versuche = 0;
+                z.gesperrtBis = now + SPERRDAUER_MS;
+                neuGesperrt[0] = true;
+            }
+            return z;
+        });
+        return neuGesperrt[0];
+    }
+
+    // Der einzige DB-Write: die Sperre selbst (für Audit und Admin-Ansicht)
+    private void sperreInDb(String email) {
+        try {
+            userRepository.sperreAccount(email, LocalDateTime.now().plusMinutes(SPERRDAUER_MINUTEN), MAX_FEHLVERSUCHE);
+        } catch (Exception e) {
+            log.warn("Sperre für '{}' konnte nicht in der DB vermerkt werden: {}", email, e.getMessage());
+        }
+    }
+
+    private static String emailKey(String email) {
+        return "email:" + (email == null ? "" : email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static String ipKey(String ip) {
+        return "ip:" + ip;
+    }
+
+    private static class Zaehler {
+        int versuche;
+        final long fensterBis;
+        long gesperrtBis;
+
+        Zaehler(long fensterBis) {
+            this.fensterBis = fensterBis;
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package org.example.javamusicapp.service.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.javamusicapp.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 🪣 **Was geht hier ab?**
+ * Der `RateLimitFilter` lässt `/api/auth/**` komplett durch – und genau da sitzt das teure BCrypt.
+ * Dieser Service verteilt Token Buckets pro IP und pro E-Mail für Login, Registrierung und Passwort-Reset.
+ * Ist ein Bucket leer, gibt's sofort 429 mit `Retry-After`, BEVOR irgendwas gehasht wird.
+ *
+ * Die Buckets liegen bewusst lokal im Prozess: Es geht um den Schutz der CPU DIESER Instanz, nicht um
+ * ein globales Kontingent. Die Map ist begrenzt; volle Buckets ohne Aktivität werden weggeräumt.
+ *
+ * Config (`app.auth.throttle.*`): Kapazität und Nachfüllrate pro Minute, getrennt für IP und E-Mail.
+ * Metrik: `auth.throttle.rejected` mit Tag `scope` (ip/email).
+ */
+@Slf4j
+@Service
+public class AuthThrottleService {
+
+    private static final int MAX_BUCKETS = 50_000;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final int ipCapacity;
+    private final double ipRefillPerMilli;
+    private final int emailCapacity;
+    private final double emailRefillPerMilli;
+    private final Counter rejectedIp;
+    private final Counter rejectedEmail;
+
+    public AuthThrottleService(
+            MeterRegistry meterRegistry,
+            @Value("${app.auth.throttle.ip.capacity:30}") int ipCapacity,
+            @Value("${app.auth.throttle.ip.refill-per-minute:30}") int ipRefillPerMinute,
+            @Value("${app.auth.throttle.email.capacity:10}") int emailCapacity,
+            @Value("${app.auth.throttle.email.refill-per-minute:5}") int emailRefillPerMinute) {
+        this.ipCapacity = ipCapacity;
+        this.ipRefillPerMilli = ipRefillPerMinute / 60_000d;
+        this.emailCapacity = emailCapacity;
+        this.emailRefillPerMilli = emailRefillPerMinute / 60_000d;
+        this.rejectedIp = Counter.builder("auth.throttle.rejected").tag("scope", "ip").register(meterRegistry);
+        this.rejectedEmail = Counter.builder("auth.throttle.rejected").tag("scope", "email").register(meterRegistry);
+    }
+
+    /**
+     * Zieht je einen Token vom IP- und (falls vorhanden) vom E-Mail-Bucket ab.
+     *
+     * @throws TooManyRequestsException wenn einer der Buckets leer ist.
+     */
+    public void pruefe(String ip, String email) {
+        long now = System.currentTimeMillis();
+        if (buckets.size() >= MAX_BUCKETS) {
+            aufraeumen(now);
+        }
+        if (ip != null) {
+            long waitMillis = take("ip:" + ip, ipCapacity, ipRefillPerMilli, now);
+            if (waitMillis > 0) {
+                rejectedIp.increment();
+                throw new TooManyRequestsException("Zu viele Anfragen von dieser IP-Adresse.", toSeconds(waitMillis));
+            }
+        }
+        if (email != null && !email.isBlank()) {
+            String key = "email:" + email.trim().toLowerCase(Locale.ROOT);
+            long waitMillis = take(key, emailCapacity, emailRefillPerMilli, now);
+            if (waitMillis > 0) {
+                rejectedEmail.increment();
+                throw new TooManyRequestsException("Zu viele Anfragen für dieses Konto.", toSeconds(waitMillis));
+            }
+        }
+    }
+
+    // 0 = Token bekommen, sonst Wartezeit in ms bis zum nächsten Token
+    private long take(String key, int capacity, double refillPerMilli, long now) {
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+        synchronized (bucket) {
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.lastRefill) * refillPerMilli);
+            bucket.lastRefill = now;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / refillPerMilli);
+        }
+    }
+
+    // Ein Bucket, der sich inzwischen komplett aufgefüllt hätte, ist gleichwertig zu "kein Bucket"
+    private void aufraeumen(long now) {
+        buckets.entrySet().removeIf(entry -> {
+            boolean ip = entry.getKey().startsWith("ip:");
+            int capacity = ip ? ipCapacity : emailCapacity;
+            double refill = ip ? ipRefillPerMilli : emailRefillPerMilli;
+            Bucket bucket = entry.getValue();
+            synchronized (bucket) {
+                return bucket.tokens + (now - bucket.lastRefill) * refill >= capacity;
+            }
+        });
+        log.debug("Auth-Throttle aufgeräumt, {} Buckets übrig", buckets.size());
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    private static class Bucket {
+        double tokens;
+        long lastRefill;
+
+        Bucket(double tokens, long lastRefill) {
+            this.tokens = tokens;
+            this.lastRefill = lastRefill;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package org.example.javamusicapp.service.auth;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.javamusicapp.config.RedisCircuitBreaker;
+import org.example.javamusicapp.model.User;
+import org.example.javamusicapp.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 🗂️ **Was geht hier ab?**
+ * Vorher hat der `JwtAuthenticationFilter` bei JEDEM Request den User per `findByEmail` (plus Join auf die
+ * EAGER-Rollen) aus PostgreSQL geholt – und danach haben `NachweisService` und `UserController` denselben User
+ * nochmal per Username geladen. Dieser Cache macht daraus im Normalfall null DB-Zugriffe.
+ *
+ * Drei Ebenen, von schnell nach langsam:
+ * 1. **Request-Identity-Map**: Innerhalb eines Requests wird ein User höchstens einmal aufgelöst
+ *    (liegt als Request-Attribut am `RequestContextHolder`).
+ * 2. **L1 im Prozess**: `ConcurrentHashMap` mit TTL (`app.principal-cache.ttl-seconds`) und Obergrenze
+ *    (`app.principal-cache.max-entries`).
+ * 3. **L2 in Redis** (optional, `app.principal-cache.redis.enabled=true`): Damit mehrere Instanzen sich den
+ *    Cache teilen. Fällt Redis aus (oder ist der `RedisCircuitBreaker` offen), geht's einfach weiter zur DB.
+ *
+ * Geladen wird immer vom Primary: Kommt der Aufruf aus einer Lese-Transaktion (die evtl. auf der Read-Replica
+ * läuft), bekommt der Load eine eigene Schreib-Transaktion. Sonst könnte ein veralteter User für die ganze TTL
+ * im Cache landen.
+ *
+ * Gecached wird ein `PrincipalSnapshot` (ohne Passwort), jeweils unter `id:`, `email:` UND `username:`.
+ * `UserService` ruft `evict()` bei Rollen-Änderungen, Passwort-Wechsel, Profil-Updates und beim Löschen.
+ * Andere Instanzen merken das im L1 spätestens nach Ablauf der TTL – deshalb ist die TTL bewusst kurz.
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    private static final String REDIS_PREFIX = "principal:";
+    private static final String REQUEST_ATTR_PREFIX = PrincipalCache.class.getName() + ".";
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate eigeneTransaktion;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final boolean redisEnabled;
+    private final Map<String, Entry> local = new ConcurrentHashMap<>();
+
+    public PrincipalCache(
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            RedisTemplate<String, Object> redisTemplate,
+            RedisCircuitBreaker redisCircuitBreaker,
+            @Value("${app.principal-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${app.principal-cache.max-entries:10000}") int maxEntries,
+            @Value("${app.principal-cache.redis.enabled:false}") boolean redisEnabled) {
+        this.userRepository = userRepository;
+        this.eigeneTransaktion = new TransactionTemplate(transactionManager);
+        this.eigeneTransaktion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.redisTemplate = redisTemplate;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+        this.redisEnabled = redisEnabled;
+    }
+
+    public Optional<PrincipalSnapshot> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return lookup(emailKey(email), () -> userRepository.findByEmail(email));
+    }
+
+    public Optional<PrincipalSnapshot> findById(UUID id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return lookup(idKey(id), () -> userRepository.findById(id));
+    }
+
+    public Optional<PrincipalSnapshot> findByUsername(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        return lookup(usernameKey(username), () -> userRepository.findByUsername(username));
+    }
+
+    /**
+     * Wirft den User aus allen Ebenen raus. Muss nach jeder Änderung an Rollen, Passwort oder Profil
+     * aufgerufen werden.
+     */
+    public void evict(User user) {
+        if (user.getId() != null) {
+            evictKey(idKey(user.getId()));
+        }
+        if (user.getEmail() != null) {
+            evictKey(emailKey(user.getEmail()));
+        }
+        if (user.getUsername() != null) {
+            evictKey(usernameKey(user.getUsername()));
+        }
+    }
+
+    private Optional<PrincipalSnapshot> lookup(String key, Supplier<Optional<User>> loader) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            Object memo = request.getAttribute(REQUEST_ATTR_PREFIX + key, RequestAttributes.SCOPE_REQUEST);
+            if (memo instanceof PrincipalSnapshot snapshot) {
+                return Optional.of(snapshot);
+            }
+        }
+
+        PrincipalSnapshot snapshot = getLocal(key);
+        if (snapshot == null) {
+            snapshot = getRedis(key);
+            if (snapshot == null) {
+                Optional<PrincipalSnapshot> geladen = ladeVomPrimary(loader);
+                if (geladen.isEmpty()) {
+                    // Negative Treffer werden nicht gecached, sonst sieht man frisch registrierte User nicht
+                    return Optional.empty();
+                }
+                snapshot = geladen.get();
+                putRedis(snapshot);
+            }
+            putLocal(snapshot);
+        }
+
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTR_PREFIX + key, snapshot, RequestAttributes.SCOPE_REQUEST);
+        }
+        return Optional.of(snapshot);
+    }
+
+    // Eine Schreib-Transaktion läuft eh auf dem Primary, da reicht Mitmachen. Nur aus einer Lese-Transaktion raus
+    // braucht's eine eigene (und damit eine zweite Connection, aber aus dem Primary-Pool)
+    private Optional<PrincipalSnapshot> ladeVomPrimary(Supplier<Optional<User>> loader) {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.get().map(PrincipalSnapshot::from);
+        }
+        return eigeneTransaktion.execute(status -> loader.get().map(PrincipalSnapshot::from));
+    }
+
+    private PrincipalSnapshot getLocal(String key) {
+        Entry entry = local.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+            local.remove(key, entry);
+            return null;
+        }
+        return entry.snapshot;
+    }
+
+    private void putLocal(PrincipalSnapshot snapshot) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        if (local.size() >= maxEntries) {
+            long now = System.currentTimeMillis();
+            local.values().removeIf(entry -> entry.expiresAtMillis <= now);
+            if (local.size() >= maxEntries) {
+                return;
+            }
+        }
+        Entry entry = new Entry(snapshot, System.currentTimeMillis() + ttlMillis);
+        local.put(idKey(snapshot.getId()), entry);
+        if (snapshot.getEmail() != null) {
+            local.put(emailKey(snapshot.getEmail()), entry);
+        }
+        local.put(usernameKey(snapshot.getUsername()), entry);
+    }
+
+    private PrincipalSnapshot getRedis(String key) {
+        if (!redisEnabled) {
+            return null;
+        }
+        try {
+            Object value = redisCircuitBreaker.execute(() -> redisTemplate.opsForValue().get(REDIS_PREFIX + key));
+            return value instanceof PrincipalSnapshot snapshot ? snapshot : null;
+        } catch (Exception e) {
+            log.debug("Principal-Cache: Redis nicht erreichbar, gehe zur DB: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void putRedis(PrincipalSnapshot snapshot) {
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            Duration ttl = Duration.ofMillis(ttlMillis);
+            redisCircuitBreaker.execute(() -> {
+                redisTemplate.opsForValue().set(REDIS_PREFIX + idKey(snapshot.getId()), snapshot, ttl);
+                if (snapshot.getEmail() != null) {
+                    redisTemplate.opsForValue().set(REDIS_PREFIX + emailKey(snapshot.getEmail()), snapshot, ttl);
+                }
+                redisTemplate.opsForValue().set(REDIS_PREFIX + usernameKey(snapshot.getUsername()), snapshot, ttl);
+                return null;
+            });
+        } catch (Exception e) {
+            log.debug("Principal-Cache: Konnte nicht in Redis schreiben: {}", e.getMessage());
+        }
+    }
+
+    private void evictKey(String key) {
+        local.remove(key);
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.removeAttribute(REQUEST_ATTR_PREFIX + key, RequestAttributes.SCOPE_REQUEST);
+        }
+        if (redisEnabled) {
+            try {
+                redisCircuitBreaker.execute(() -> redisTemplate.delete(REDIS_PREFIX + key));
+            } catch (Exception e) {
+                log.warn("Principal-Cache: Konnte {} nicht aus Redis löschen: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private static String idKey(UUID id) {
+        return "id:" + id;
+    }
+
+    private static String emailKey(String email) {
+        // Lookups per E-Mail sind case-insensitive, also auch der Cache-Key
+        return "email:" + email.toLowerCase(Locale.ROOT);
+    }
+
+    private static String usernameKey(String username) {
+        return "username:" + username;
+    }
+
+    private static class Entry {
+        final PrincipalSnapshot snapshot;
+        final long expiresAtMillis;
+
+        Entry(PrincipalSnapshot snapshot, long expiresAtMillis) {
+            this.snapshot = snapshot;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.javamusicapp.service.auth;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.javamusicapp.model.Role;
+import org.example.javamusicapp.model.User;
+import org.example.javamusicapp.model.enums.ERole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 📸 **Was geht hier ab?**
+ * Ein kompakter Schnappschuss von einem User – genau das, was wir pro Request brauchen:
+ * ID, Username, E-Mail, Name, Rollen, Profil-Felder und die `tokenVersion` (für neue JWTs beim Refresh).
+ * KEIN Passwort, keine Collections (Nachweise, ToDos), nix Lazy-Loading.
+ *
+ * Wird vom `PrincipalCache` im Speicher und optional in Redis (als JSON) abgelegt.
+ * Mit `toUser()` wird daraus ein frischer, losgelöster `User` für den SecurityContext gebaut.
+ */
+@Data
+@NoArgsConstructor
+public class PrincipalSnapshot {
+    private UUID id;
+    private String username;
+    private String name;
+    private String email;
+    private List<String> roles = new ArrayList<>();
+    private Integer ausbildungsjahr;
+    private String telefonnummer;
+    private String team;
+    private String profileImageUrl;
+    private int tokenVersion;
+
+    public static PrincipalSnapshot from(User user) {
+        PrincipalSnapshot snapshot = new PrincipalSnapshot();
+        snapshot.setId(user.getId());
+        snapshot.setUsername(user.getUsername());
+        snapshot.setName(user.getName());
+        snapshot.setEmail(user.getEmail());
+        snapshot.setRoles(user.getRoles().stream()
+                .map(role -> role.getName().name())
+                .collect(Collectors.toList()));
+        snapshot.setAusbildungsjahr(user.getAusbildungsjahr());
+        snapshot.setTelefonnummer(user.getTelefonnummer());
+        snapshot.setTeam(user.getTeam());
+        snapshot.setProfileImageUrl(user.getProfileImageUrl());
+        snapshot.setTokenVersion(user.getTokenVersion());
+        return snapshot;
+    }
+
+    public boolean hasRole(ERole role) {
+        return roles.contains(role.name());
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Baut einen losgelösten `User` (nicht von Hibernate verwaltet) ohne Passwort.
+     * Reicht für den SecurityContext und `@AuthenticationPrincipal`, darf aber NIE gespeichert werden.
+     */
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setName(name);
+        user.setEmail(email);
+        user.setAusbildungsjahr(ausbildungsjahr);
+        user.setTelefonnummer(telefonnummer);
+        user.setTeam(team);
+        user.setProfileImageUrl(profileImageUrl);
+        user.setTokenVersion(tokenVersion);
+        for (String roleName : roles) {
+            Role role = new Role();
+            role.setName(ERole.valueOf(roleName));
+            user.getRoles().add(role);
+        }
+        return user;
+    }
+}
@@ -1,16 +1,16 @@
 package org.example.javamusicapp.service.auth;
 
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
-import org.example.javamusicapp.handler.TokenRefreshException;
+import org.example.javamusicapp.config.RedisCircuitBreaker;
 import org.example.javamusicapp.model.RefreshToken;
 import org.example.javamusicapp.model.User;
-import org.example.javamusicapp.repository.RefreshTokenRepository;
-import org.example.javamusicapp.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -20,104 +20,164 @@ import java.util.UUID;
  * kurz gültig, aber wir wollen ja nicht, dass der User sich alle 15 Minuten neu einloggen
  * muss. Hier kommen die Refresh Tokens ins Spiel.
  *
+ * Früher war das ein `@RedisHash` mit `@Indexed`-Token – jeder Lookup lief über Spring-Data-Index-Sets,
+ * `createRefreshToken()` brauchte mehrere Round Trips und hat Index-Müll hinterlassen. Jetzt ist es ein
+ * schlanker, eigener Redis-Store:
+ * - **`rt:<token>` -> userId** mit nativer TTL. Abgelaufene Tokens räumt Redis selbst weg.
+ * - **`rt:user:<userId>`**: Set mit allen Tokens eines Users (ein Eintrag pro Gerät), für "überall abmelden".
+ *
  * Der Vibe ist so:
- * - **createRefreshToken()**: Wenn der User sich einloggt, wird nicht nur ein Access Token,
- *   sondern auch ein langlebiger Refresh Token erstellt. Dieser wird sicher in der
- *   Datenbank gespeichert.
- * - **verifyExpiration()**: Wenn der Access Token abläuft, schickt das Frontend den Refresh
- *   Token an den `/refresh` Endpunkt. Dieser Service checkt dann, ob der Token noch gültig
- *   (also nicht abgelaufen) ist.
- * - **findByToken()**: Sucht den Token in der Datenbank, um den zugehörigen User zu finden
- *   und ihm einen neuen Access Token auszustellen.
- * - **deleteByUserId()**: Wenn der User sich ausloggt (oder ein neuer Refresh Token erstellt wird),
- *   wird der alte Token gelöscht, um die Session ungültig zu machen.
+ * - **createRefreshToken()**: Beim Login kommt ein neuer Token dazu. Andere Geräte bleiben eingeloggt.
+ * - **rotate()**: Beim `/refresh` wird der alte Token in EINEM Lua-Script atomar gegen einen neuen getauscht
+ *   (ein Redis-Call). Der neue Token erbt die Rest-Laufzeit, die Session wird also nicht endlos verlängert.
+ *   Ein schon benutzter Token ist danach wertlos.
+ * - **revoke()**: Meldet genau ein Gerät ab.
+ * - **deleteByUserId()**: Meldet den User auf allen Geräten ab.
+ *
+ * Alle Calls laufen über den `RedisCircuitBreaker`: Hängt Redis, gibt's nach kurzem Timeout bzw. bei offenem
+ * Breaker sofort ein 503 mit Retry-After, statt dass `/refresh` minutenlang blockiert.
  *
- * Hält den User also smooth eingeloggt, ohne die Security zu vernachlässigen.
+ * Hinweis: Die Scripts fassen `rt:user:<userId>` an, ohne den Key vorher zu kennen – das passt für unser
+ * einzelnes Redis, aber nicht für Redis Cluster.
  */
 @Slf4j
 @Service
 public class RefreshTokenService {
+
+    private static final String TOKEN_PREFIX = "rt:";
+    private static final String USER_PREFIX = "rt:user:";
+
+    // KEYS[1] = rt:<token>, KEYS[2] = rt:user:<uid>; ARGV = uid, ttlMs, token, tokenPrefix
+    private static final DefaultRedisScript<Long> CREATE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            for _, t in ipairs(redis.call('SMEMBERS', KEYS[2])) do
+              if redis.call('EXISTS', ARGV[4] .. t) == 0 then
+                redis.call('SREM', KEYS[2], t)
+              end
+            end
+            redis.call('SADD', KEYS[2], ARGV[3])
+            if redis.call('PTTL', KEYS[2]) < tonumber(ARGV[2]) then
+              redis.call('PEXPIRE', KEYS[2], ARGV[2])
+            end
+            return 1
+            """, Long.class);
+
+    // KEYS[1] = rt:<alt>, KEYS[2] = rt:<neu>; ARGV = neuerToken, alterToken, userPrefix
+    // Rückgabe: {uid, restTtlMs} oder nil, wenn der alte Token unbekannt/abgelaufen ist
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> ROTATE_SCRIPT = new DefaultRedisScript<>("""
+            local uid = redis.call('GET', KEYS[1])
+            if not uid then
+              return nil
+            end
+            local ttl = redis.call('PTTL', KEYS[1])
+            if ttl <= 0 then
+              return nil
+            end
+            redis.call('DEL', KEYS[1])
+            redis.call('SET', KEYS[2], uid, 'PX', ttl)
+            local userKey = ARGV[3] .. uid
+            redis.call('SREM', userKey, ARGV[2])
+            redis.call('SADD', userKey, ARGV[1])
+            return {uid, ttl}
+            """, List.class);
+
+    // KEYS[1] = rt:<token>; ARGV = token, userPrefix
+    private static final DefaultRedisScript<Long> REVOKE_SCRIPT = new DefaultRedisScript<>("""
+            local uid = redis.call('GET', KEYS[1])
+            if not uid then
+              return 0
+            end
+            redis.call('DEL', KEYS[1])
+            redis.call('SREM', ARGV[2] .. uid, ARGV[1])
+            return 1
+            """, Long.class);
+
+    // KEYS[1] = rt:user:<uid>; ARGV = tokenPrefix
+    private static final DefaultRedisScript<Long> REVOKE_ALL_SCRIPT = new DefaultRedisScript<>("""
+            local tokens = redis.call('SMEMBERS', KEYS[1])
+            for _, t in ipairs(tokens) do
+              redis.call('DEL', ARGV[1] .. t)
+            end
+            redis.call('DEL', KEYS[1])
+            return #tokens
+            """, Long.class);
+
     @Value("${jwt.refresh.expiration.days}")
     private long refreshExpirationDays;
 
-    private final RefreshTokenRepository refreshTokenRepository;
-    private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker redisCircuitBreaker;
 
-    public RefreshTokenService(
-            RefreshTokenRepository refreshTokenRepository,
-            UserRepository userRepository) {
-        this.refreshTokenRepository = refreshTokenRepository;
-        this.userRepository = userRepository;
+    public RefreshTokenService(StringRedisTemplate redisTemplate, RedisCircuitBreaker redisCircuitBreaker) {
+        this.redisTemplate = redisTemplate;
+        this.redisCircuitBreaker = redisCircuitBreaker;
     }
 
     /**
-     * Erstellt einen neuen Refresh Token für den Benutzer.
-     * 
+     * Erstellt einen neuen Refresh Token für den Benutzer (ein weiteres Gerät).
+     *
      * @param user Der Benutzer, für den der Token erstellt wird.
      * @return Das erstellte RefreshToken-Objekt.
      */
     public RefreshToken createRefreshToken(User user) {
-        refreshTokenRepository.findByUserId(user.getId())
-                .ifPresent(refreshTokenRepository::delete);
+        long ttlMillis = refreshExpirationDays * 24 * 60 * 60 * 1000;
+        String token = UUID.randomUUID().toString();
 
-        // BERECHNE DIE DAUER ALS EINEN LANGEN WERT (30 Tage * 24h * 60min * 60sek)
-        long durationSeconds = refreshExpirationDays * 24 * 60 * 60;
+        redisCircuitBreaker.execute(() -> redisTemplate.execute(CREATE_SCRIPT,
+                List.of(TOKEN_PREFIX + token, USER_PREFIX + user.getId()),
+                user.getId().toString(), Long.toString(ttlMillis), token, TOKEN_PREFIX));
 
-        RefreshToken refreshToken = RefreshToken.builder()
+        return RefreshToken.builder()
                 .userId(user.getId())
-                .token(UUID.randomUUID().toString())
-                // WICHTIG: Verwende den fertigen Wert in plusSeconds()
-                .expiryDate(Instant.now().plusSeconds(durationSeconds))
+                .token(token)
+                .expiryDate(Instant.now().plusMillis(ttlMillis))
                 .build();
-
-        return refreshTokenRepository.save(refreshToken);
     }
 
     /**
-     * Sucht den Refresh Token in der Datenbank.
-     * 
-     * @param token Der String des Refreshtokens.
-     * @return Optional<RefreshToken>
+     * Tauscht einen Refresh Token atomar gegen einen neuen (Rotate-on-use). Genau ein Redis-Call.
+     *
+     * @param token Der bisherige Refresh Token.
+     * @return Der neue Token samt User-ID, oder leer, wenn der alte Token unbekannt, abgelaufen oder schon
+     *         benutzt ist.
      */
-    public Optional<RefreshToken> getRefreshToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+    public Optional<RefreshToken> rotate(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String newToken = UUID.randomUUID().toString();
+        List<?> result = redisCircuitBreaker.execute(() -> redisTemplate.execute(ROTATE_SCRIPT,
+                List.of(TOKEN_PREFIX + token, TOKEN_PREFIX + newToken),
+                newToken, token, USER_PREFIX));
+        if (result == null || result.size() < 2) {
+            return Optional.empty();
+        }
+        long remainingMillis = Long.parseLong(result.get(1).toString());
+        return Optional.of(RefreshToken.builder()
+                .userId(UUID.fromString(result.get(0).toString()))
+                .token(newToken)
+                .expiryDate(Instant.now().plusMillis(remainingMillis))
+                .build());
     }
 
     /**
-     * Überprüft, ob der Token abgelaufen ist. Wenn ja, löscht er ihn.
-     * 
-     * @param token Der zu prüfende RefreshToken.
-     * @return Den RefreshToken, wenn er gültig ist.
-     * @throws TokenRefreshException Wenn der Token abgelaufen ist.
+     * Meldet genau das Gerät ab, zu dem der Token gehört.
      */
-    public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.getExpiryDate().isBefore(Instant.now())) {
-            refreshTokenRepository.delete(token);
-            throw new TokenRefreshException(token.getToken(),
-                    "Refresh Token ist abgelaufen. Bitte melden Sie sich erneut an.");
+    public void revoke(String token) {
+        if (token == null || token.isBlank()) {
+            return;
         }
-        return token;
+        redisCircuitBreaker.execute(
+                () -> redisTemplate.execute(REVOKE_SCRIPT, List.of(TOKEN_PREFIX + token), token, USER_PREFIX));
     }
 
     /**
-     * Löscht den Refresh Token, z.B. beim Logout.
+     * Löscht alle Refresh Tokens des Users, z.B. beim Löschen des Accounts oder Passwort-Reset.
      */
-    @Transactional
     public void deleteByUserId(UUID userId) {
-        refreshTokenRepository.findByUserId(userId)
-                .ifPresent(refreshTokenRepository::delete);
-    }
-
-    /**
-     * Sucht den Refresh Token in der Datenbank.
-     * 
-     * @param token Der String des Refreshtokens.
-     * @return Optional<RefreshToken>
-     */
-    public Optional<RefreshToken> findByToken(String token) {
-        log.info("=== Finding refresh token: {}", token);
-        Optional<RefreshToken> result = refreshTokenRepository.findByToken(token);
-        log.info("=== Token found: {}", result.isPresent());
-        return result;
+        Long removed = redisCircuitBreaker.execute(
+                () -> redisTemplate.execute(REVOKE_ALL_SCRIPT, List.of(USER_PREFIX + userId), TOKEN_PREFIX));
+        log.info("{} Refresh Token(s) für User {} gelöscht", removed, userId);
     }
 }
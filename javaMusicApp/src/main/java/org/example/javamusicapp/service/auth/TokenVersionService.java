@@ -0,0 +1,174 @@
+package org.example.javamusicapp.service.auth;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.javamusicapp.config.RedisCircuitBreaker;
+import org.example.javamusicapp.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 🔢 **Was geht hier ab?**
+ * Jeder User hat eine `tokenVersion`, die mit in den JWT wandert (Claim `tv`). Wird einem User eine Rolle
+ * entzogen, das Passwort geändert oder der Account gelöscht, zählt `UserService` die Version hoch –
+ * und alle vorher ausgestellten Tokens passen nicht mehr. So funktioniert Revocation auch im
+ * claims-only Modus, in dem der Filter gar nicht mehr zur DB geht.
+ *
+ * Damit der Check pro Request nix kostet, wird die Version gestaffelt nachgeschaut:
+ * 1. **Lokal im Speicher** (sehr kurze TTL, `app.token-version.local-ttl-ms`)
+ * 2. **Redis** (`tv:<userId>`), wird bei jeder Änderung sofort überschrieben – so sehen alle Instanzen
+ *    die neue Version nach spätestens einer lokalen TTL.
+ * 3. **DB** als Fallback (nur die eine Spalte, kein User-Load).
+ *
+ * Auf der Instanz, die die Änderung macht, greift die Revocation sofort.
+ */
+@Slf4j
+@Service
+public class TokenVersionService {
+
+    private static final String REDIS_PREFIX = "tv:";
+    private static final int UNKNOWN_USER = -1;
+
+    private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final long localTtlMillis;
+    private final Duration redisTtl;
+    private final int maxEntries;
+    private final Map<UUID, Entry> local = new ConcurrentHashMap<>();
+
+    public TokenVersionService(
+            UserRepository userRepository,
+            @Autowired(required = false) StringRedisTemplate redisTemplate,
+            RedisCircuitBreaker redisCircuitBreaker,
+            @Value("${app.token-version.local-ttl-ms:2000}") long localTtlMillis,
+            @Value("${app.token-version.redis-ttl-hours:24}") long redisTtlHours,
+            @Value("${app.token-version.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.localTtlMillis = localTtlMillis;
+        this.redisTtl = Duration.ofHours(redisTtlHours);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return {@code true}, wenn die Version aus dem Token der aktuellen Version des Users entspricht.
+     *         Für gelöschte User immer {@code false}.
+     */
+    public boolean isCurrent(UUID userId, int tokenVersion) {
+        if (userId == null) {
+            return false;
+        }
+        int current = currentVersion(userId);
+        return current != UNKNOWN_USER && current == tokenVersion;
+    }
+
+    public int currentVersion(UUID userId) {
+        Entry entry = local.get(userId);
+        long now = System.currentTimeMillis();
+        if (entry != null && entry.expiresAtMillis > now) {
+            return entry.version;
+        }
+
+        Integer version = readRedis(userId);
+        if (version == null) {
+            version = userRepository.findTokenVersionById(userId).orElse(UNKNOWN_USER);
+            if (version != UNKNOWN_USER) {
+                // Nur setzen, wenn noch nix drinsteht: ein parallel laufendes publish() ist neuer als unser DB-Read
+                writeRedisIfAbsent(userId, version);
+            }
+        }
+        putLocal(userId, version, now);
+        return version;
+    }
+
+    /**
+     * Neue Version (nach dem Speichern des Users) sofort an Redis und den lokalen Cache verteilen.
+     */
+    public void publish(UUID userId, int version) {
+        writeRedis(userId, version);
+        putLocal(userId, version, System.currentTimeMillis());
+    }
+
+    /**
+     * User gelöscht -> alle Tokens ungültig.
+     */
+    public void evict(UUID userId) {
+        local.put(userId, new Entry(UNKNOWN_USER, System.currentTimeMillis() + localTtlMillis));
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisCircuitBreaker.execute(() -> redisTemplate.delete(REDIS_PREFIX + userId));
+        } catch (Exception e) {
+            log.warn("Token-Version für {} konnte nicht aus Redis gelöscht werden: {}", userId, e.getMessage());
+        }
+    }
+
+    private Integer readRedis(UUID userId) {
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            // Bei offenem Breaker direkt zur DB, ohne auf den Redis-Timeout zu warten
+            String value = redisCircuitBreaker.execute(() -> redisTemplate.opsForValue().get(REDIS_PREFIX + userId));
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (Exception e) {
+            log.debug("Token-Version: Redis nicht erreichbar, gehe zur DB: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(UUID userId, int version) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisCircuitBreaker.execute(() -> {
+                redisTemplate.opsForValue().set(REDIS_PREFIX + userId, Integer.toString(version), redisTtl);
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Token-Version für {} konnte nicht in Redis geschrieben werden: {}", userId, e.getMessage());
+        }
+    }
+
+    private void writeRedisIfAbsent(UUID userId, int version) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisCircuitBreaker.execute(() -> redisTemplate.opsForValue()
+                    .setIfAbsent(REDIS_PREFIX + userId, Integer.toString(version), redisTtl));
+        } catch (Exception e) {
+            log.debug("Token-Version für {} konnte nicht in Redis vorgemerkt werden: {}", userId, e.getMessage());
+        }
+    }
+
+    private void putLocal(UUID userId, int version, long now) {
+        if (local.size() >= maxEntries) {
+            local.values().removeIf(entry -> entry.expiresAtMillis <= now);
+            if (local.size() >= maxEntries) {
+                return;
+            }
+        }
+        local.put(userId, new Entry(version, now + localTtlMillis));
+    }
+
+    private static class Entry {
+        final int version;
+        final long expiresAtMillis;
+
+        Entry(int version, long expiresAtMillis) {
+            this.version = version;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package org.example.javamusicapp.service.auth;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.example.javamusicapp.config.auth.BoundedPasswordEncoder;
+import org.example.javamusicapp.controller.authController.dto.RegistrationRequest;
+import org.example.javamusicapp.controller.userController.dto.BulkImportResult;
+import org.example.javamusicapp.model.Role;
+import org.example.javamusicapp.model.enums.ERole;
+import org.example.javamusicapp.repository.RoleRepository;
+import org.example.javamusicapp.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 📦 **Was geht hier ab?**
+ * Zum Start jedes Ausbildungsjahres kommen hunderte Azubis auf einmal. Statt hunderte Mal
+ * `/api/auth/register` (je 2 exists-Queries, Rollen-Lookup, BCrypt, Insert) gibt's hier den Bulk-Import:
+ *
+ * 1. **Validieren in einem Rutsch**: Pflichtfelder und Passwort-Regeln pro Zeile, Duplikate innerhalb der
+ *    Datei, und die Existenz-Checks gegen die DB als ein `IN (...)`-Query pro Chunk statt pro Zeile.
+ * 2. **Parallel hashen**: BCrypt läuft auf einem eigenen Fork-Join-Pool (`app.user-import.hash-parallelism`,
+ *    Default: die Hälfte der Cores). Der Login-Pool vom `BoundedPasswordEncoder` bleibt dabei frei.
+ * 3. **Batch-Insert**: `app_user` und `user_roles` per JDBC-Batch in EINER Transaktion.
+ *
+ * Für jede Zeile gibt's ein `BulkImportResult` (CREATED, REJECTED oder FAILED) über den Callback –
+ * der Controller streamt das direkt als NDJSON raus.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    public static final String STATUS_CREATED = "CREATED";
+    public static final String STATUS_REJECTED = "REJECTED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private static final int BATCH_SIZE = 200;
+    private static final int IN_CHUNK_SIZE = 1000;
+    private static final List<String> CSV_SPALTEN = List.of(
+            "username", "name", "email", "password", "ausbildungsjahr", "telefonnummer", "team");
+
+    private static final String INSERT_USER = """
+            insert into app_user (id, username, name, email, password, ausbildungsjahr, telefonnummer, team,
+                                  fehlgeschlagene_anmeldeversuche, token_version)
+            values (?, ?, ?, ?, ?, ?, ?, ?, 0, 0)
+            """;
+    private static final String INSERT_USER_ROLE = "insert into user_roles (user_id, role_id) values (?, ?)";
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ForkJoinPool hashPool;
+
+    public UserImportService(
+            UserRepository userRepository,
+            RoleRepository roleRepository,
+            BoundedPasswordEncoder passwordEncoder,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            Validator validator,
+            @Value("${app.user-import.hash-parallelism:0}") int hashParallelism) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder.unbounded();
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        int parallelism = hashParallelism > 0 ? hashParallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.hashPool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Liest eine CSV mit Header-Zeile. Erlaubte Spalten: username, name, email, password, ausbildungsjahr,
+     * telefonnummer, team (Reihenfolge egal). Felder dürfen in "..." stehen, `""` ist ein escaptes Anführungszeichen.
+     */
+    public List<RegistrationRequest> parseCsv(Reader reader) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        String header = in.readLine();
+        if (header == null) {
+            return List.of();
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        List<String> spalten = splitCsvZeile(header).stream()
+                .map(s -> s.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        for (String spalte : spalten) {
+            if (!CSV_SPALTEN.contains(spalte)) {
+                throw new IllegalArgumentException("Unbekannte CSV-Spalte: " + spalte);
+            }
+        }
+
+        List<RegistrationRequest> rows = new ArrayList<>();
+        String zeile;
+        while ((zeile = in.readLine()) != null) {
+            if (zeile.isBlank()) {
+                continue;
+            }
+            List<String> werte = splitCsvZeile(zeile);
+            RegistrationRequest row = new RegistrationRequest();
+            for (int i = 0; i < spalten.size() && i < werte.size(); i++) {
+                setzeFeld(row, spalten.get(i), werte.get(i).trim());
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Importiert alle Zeilen und meldet für JEDE Zeile genau ein Ergebnis an {@code report}.
+     * Zeilennummern sind 1-basiert (bei CSV ohne Header gezählt).
+     */
+    public void importiere(List<RegistrationRequest> rows, Consumer<BulkImportResult> report) {
+        long start = System.currentTimeMillis();
+        List<Kandidat> kandidaten = validiere(rows, report);
+        kandidaten = pruefeExistenz(kandidaten, report);
+        if (kandidaten.isEmpty()) {
+            return;
+        }
+
+        Optional<Role> userRole = roleRepository.findByName(ERole.ROLE_USER);
+        if (userRole.isEmpty()) {
+            kandidaten.forEach(k -> report.accept(ergebnis(k, STATUS_FAILED, "Rolle ROLE_USER nicht gefunden")));
+            return;
+        }
+
+        List<Kandidat> gehasht;
+        try {
+            gehasht = hashe(kandidaten);
+        } catch (RuntimeException e) {
+            log.error("Bulk-Import: Hashing fehlgeschlagen: {}", e.getMessage());
+            kandidaten.forEach(k -> report.accept(ergebnis(k, STATUS_FAILED, "Passwort-Hashing fehlgeschlagen")));
+            return;
+        }
+
+        try {
+            speichere(gehasht, userRole.get().getId());
+        } catch (DataAccessException e) {
+            // Eine Transaktion für alles: entweder alle Zeilen drin oder keine
+            log.error("Bulk-Import: Insert fehlgeschlagen: {}", e.getMessage());
+            gehasht.forEach(k -> report.accept(ergebnis(k, STATUS_FAILED, "Speichern fehlgeschlagen")));
+            return;
+        }
+        gehasht.forEach(k -> report.accept(ergebnis(k, STATUS_CREATED, null)));
+        log.info("AUDIT: Bulk-Import hat {} von {} Benutzern angelegt ({} ms)", gehasht.size(), rows.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    // Pass 1: alles, was ohne DB geht
+    private List<Kandidat> validiere(List<RegistrationRequest> rows, Consumer<BulkImportResult> report) {
+        List<Kandidat> kandidaten = new ArrayList<>(rows.size());
+        Set<String> usernamesInDatei = new HashSet<>();
+        Set<String> emailsInDatei = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            RegistrationRequest row = rows.get(i);
+            Kandidat k = new Kandidat(i + 1, row);
+            String fehler = pflichtfelderFehler(row);
+            if (fehler == null) {
+                Set<ConstraintViolation<RegistrationRequest>> violations = validator.validate(row);
+                if (!violations.isEmpty()) {
+                    fehler = violations.stream()
+                            .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining("; "));
+                }
+            }
+            if (fehler == null && !usernamesInDatei.add(row.getUsername())) {
+                fehler = "Benutzername kommt in der Datei mehrfach vor";
+            }
+            if (fehler == null && !emailsInDatei.add(emailKey(row.getEmail()))) {
+                fehler = "E-Mail kommt in der Datei mehrfach vor";
+            }
+            if (fehler != null) {
+                report.accept(ergebnis(k, STATUS_REJECTED, fehler));
+            } else {
+                kandidaten.add(k);
+            }
+        }
+        return kandidaten;
+    }
+
+    private static String pflichtfelderFehler(RegistrationRequest row) {
+        if (row == null) {
+            return "Leere Zeile";
+        }
+        if (istLeer(row.getUsername())) {
+            return "username: darf nicht leer sein";
+        }
+        if (istLeer(row.getName())) {
+            return "name: darf nicht leer sein";
+        }
+        if (istLeer(row.getEmail())) {
+            return "email: darf nicht leer sein";
+        }
+        return null;
+    }
+
+    // Pass 2: Existenz gegen die DB, set-basiert statt exists pro Zeile
+    private List<Kandidat> pruefeExistenz(List<Kandidat> kandidaten, Consumer<BulkImportResult> report) {
+        if (kandidaten.isEmpty()) {
+            return kandidaten;
+        }
+        Set<String> vergebeneUsernames = vorhandene(kandidaten, k -> k.row.getUsername(),
+                userRepository::findExistingUsernames);
+        Set<String> vergebeneEmails = vorhandene(kandidaten, k -> emailKey(k.row.getEmail()),
+                userRepository::findExistingEmails);
+
+        List<Kandidat> frei = new ArrayList<>(kandidaten.size());
+        for (Kandidat k : kandidaten) {
+            if (vergebeneUsernames.contains(k.row.getUsername())) {
+                report.accept(ergebnis(k, STATUS_REJECTED, "Benutzername ist bereits vergeben!"));
+            } else if (vergebeneEmails.contains(emailKey(k.row.getEmail()))) {
+                report.accept(ergebnis(k, STATUS_REJECTED, "E-Mail wird bereits verwendet!"));
+            } else {
+                frei.add(k);
+            }
+        }
+        return frei;
+    }
+
+    // Login, existsByEmail und findByEmail vergleichen auf lower(email) – Foo@x.de und foo@x.de sind derselbe User
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> vorhandene(List<Kandidat> kandidaten, Function<Kandidat, String> feld,
+            Function<List<String>, List<String>> query) {
+        List<String> werte = kandidaten.stream().map(feld).toList();
+        Set<String> vorhanden = new HashSet<>();
+        for (int i = 0; i < werte.size(); i += IN_CHUNK_SIZE) {
+            vorhanden.addAll(query.apply(werte.subList(i, Math.min(werte.size(), i + IN_CHUNK_SIZE))));
+        }
+        return vorhanden;
+    }
+
+    // Pass 3: BCrypt parallel – ein parallelStream innerhalb eines Pool-Tasks läuft komplett auf diesem Pool
+    private List<Kandidat> hashe(List<Kandidat> kandidaten) {
+        try {
+            hashPool.submit(() -> kandidaten.parallelStream().forEach(k -> {
+                k.id = UUID.randomUUID();
+                k.passwordHash = passwordEncoder.encode(k.row.getPassword());
+            })).get();
+            return kandidaten;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bulk-Import unterbrochen", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Passwort-Hashing fehlgeschlagen", e.getCause());
+        }
+    }
+
+    // Pass 4: zwei JDBC-Batches in einer Transaktion
+    private void speichere(List<Kandidat> kandidaten, UUID roleId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_USER, kandidaten, BATCH_SIZE, (ps, k) -> {
+                RegistrationRequest row = k.row;
+                ps.setObject(1, k.id);
+                ps.setString(2, row.getUsername());
+                ps.setString(3, row.getName());
+                ps.setString(4, row.getEmail());
+                ps.setString(5, k.passwordHash);
+                if (row.getAusbildungsjahr() != null) {
+                    ps.setInt(6, row.getAusbildungsjahr());
+                } else {
+                    ps.setNull(6, Types.INTEGER);
+                }
+                ps.setString(7, row.getTelefonnummer());
+                ps.setString(8, row.getTeam());
+            });
+            jdbcTemplate.batchUpdate(INSERT_USER_ROLE, kandidaten, BATCH_SIZE, (ps, k) -> {
+                ps.setObject(1, k.id);
+                ps.setObject(2, roleId);
+            });
+        });
+    }
+
+    private static void setzeFeld(RegistrationRequest row, String spalte, String wert) {
+        String value = wert.isEmpty() ? null : wert;
+        switch (spalte) {
+            case "username" -> row.setUsername(value);
+            case "name" -> row.setName(value);
+            case "email" -> row.setEmail(value);
+            case "password" -> row.setPassword(value);
+            case "ausbildungsjahr" -> row.setAusbildungsjahr(parseJahr(value));
+            case "telefonnummer" -> row.setTelefonnummer(value);
+            case "team" -> row.setTeam(value);
+            default -> throw new IllegalArgumentException("Unbekannte CSV-Spalte: " + spalte);
+        }
+    }
+
+    private static Integer parseJahr(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ausbildungsjahr ist keine Zahl: " + value);
+        }
+    }
+
+    private static List<String> splitCsvZeile(String zeile) {
+        List<String> werte = new ArrayList<>();
+        StringBuilder aktuell = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < zeile.length(); i++) {
+            char c = zeile.charAt(i);
+            if (inQuotes) {
+                if (c == '"' && i + 1 < zeile.length() && zeile.charAt(i + 1) == '"') {
+                    aktuell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    inQuotes = false;
+                } else {
+                    aktuell.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',' || c == ';') {
+                werte.add(aktuell.toString());
+                aktuell.setLength(0);
+            } else {
+                aktuell.append(c);
+            }
+        }
+        werte.add(aktuell.toString());
+        return werte;
+    }
+
+    private static boolean istLeer(String s) {
+        return s == null || s.isBlank();
+    }
+
+    private static BulkImportResult ergebnis(Kandidat k, String status, String message) {
+        String username = k.row != null ? k.row.getUsername() : null;
+        String email = k.row != null ? k.row.getEmail() : null;
+        return new BulkImportResult(k.zeile, username, email, status, message);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    private static class Kandidat {
+        final int zeile;
+        final RegistrationRequest row;
+        UUID id;
+        String passwordHash;
+
+        Kandidat(int zeile, RegistrationRequest row) {
+            this.zeile = zeile;
+            this.row = row;
+        }
+    }
+}
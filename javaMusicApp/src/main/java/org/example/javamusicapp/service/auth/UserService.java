@@ -1,10 +1,13 @@
 package org.example.javamusicapp.service.auth;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.javamusicapp.config.auth.VerifiedTokenCache;
 import org.example.javamusicapp.model.User;
 import org.example.javamusicapp.service.audit.RoleAuditService;
 import org.example.javamusicapp.repository.UserRepository;
 import org.example.javamusicapp.repository.RoleRepository;
+import org.example.javamusicapp.repository.ToDoRepository;
+import org.example.javamusicapp.repository.PasswordResetTokenRepository;
 import org.example.javamusicapp.model.Role;
 import org.example.javamusicapp.model.enums.ERole;
 import org.example.javamusicapp.service.nachweis.NachweisService;
@@ -30,6 +33,7 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.UUID;
 import javax.imageio.IIOImage;
@@ -57,7 +61,8 @@ import org.springframework.beans.factory.annotation.Value;
  * - **Admin-Aktionen**: Beinhaltet die Logik, um Usern Admin-Rechte zu geben oder zu entziehen.
  *   Das wird natürlich alles im `RoleAuditService` protokolliert.
  * - **User löschen**: Eine kritische Methode, die einen User nicht nur aus der DB löscht,
- *   sondern auch all seine zugehörigen Daten wie Nachweise und das Profilbild entfernt.
+ *   sondern auch all seine zugehörigen Daten wie Nachweise und das Profilbild entfernt – per
+ *   `DELETE ... WHERE` in ein paar Statements statt Zeile für Zeile.
  */
 @Slf4j
 @Service
@@ -67,6 +72,12 @@ public class UserService implements UserDetailsService {
     private final RoleRepository roleRepository;
     private final RoleAuditService roleAuditService;
     private final NachweisService nachweisService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final PrincipalCache principalCache;
+    private final TokenVersionService tokenVersionService;
+    private final RefreshTokenService refreshTokenService;
+    private final ToDoRepository toDoRepository;
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
     private static final String UPLOAD_DIR = "uploads/profile-images/";
     @Value("${image.max-width:1024}")
     private int maxWidth;
@@ -78,12 +89,21 @@ public class UserService implements UserDetailsService {
     private float imageQuality;
 
     public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, RoleRepository roleRepository,
-            RoleAuditService roleAuditService, NachweisService nachweisService) {
+            RoleAuditService roleAuditService, NachweisService nachweisService,
+            VerifiedTokenCache verifiedTokenCache, PrincipalCache principalCache,
+            TokenVersionService tokenVersionService, RefreshTokenService refreshTokenService,
+            ToDoRepository toDoRepository, PasswordResetTokenRepository passwordResetTokenRepository) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.roleRepository = roleRepository;
         this.roleAuditService = roleAuditService;
         this.nachweisService = nachweisService;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.principalCache = principalCache;
+        this.tokenVersionService = tokenVersionService;
+        this.refreshTokenService = refreshTokenService;
+        this.toDoRepository = toDoRepository;
+        this.passwordResetTokenRepository = passwordResetTokenRepository;
         // Erstelle das Upload-Verzeichnis, falls es nicht existiert
         try {
             Files.createDirectories(Paths.get(UPLOAD_DIR));
@@ -95,26 +115,30 @@ public class UserService implements UserDetailsService {
     @Transactional
     public void deleteUser(String username, String performedBy) {
         User user = findByUsername(username);
+        UUID userId = user.getId();
 
         log.info("AUDIT: Benutzer '{}' wird von '{}' gelöscht.", username, performedBy);
 
-        // Delete Nachweise
+        // Alles per DELETE ... WHERE in Abhängigkeits-Reihenfolge, statt todos und nachweiseAlsAzubi in den Speicher
+        // zu laden und Zeile für Zeile zu kaskadieren. Ein User mit 150 Nachweisen sind so ~10 Statements.
+        nachweisService.loescheAlleNachweiseVonAzubi(username, performedBy);
+        nachweisService.entferneAusbilder(userId, username);
+        toDoRepository.loescheAlleVonUser(userId);
+        passwordResetTokenRepository.loescheAlleVonUser(userId);
+        userRepository.loescheRollenZuordnungen(userId);
+        userRepository.loescheById(userId);
+        log.info("Nachweise, Todos und Tokens für Benutzer '{}' gelöscht.", username);
+
+        // Nur die Datei, die Spalte verschwindet ja mit dem User
         try {
-            nachweisService.loescheAlleNachweiseVonAzubi(username);
-            log.info("Alle Nachweise für Benutzer '{}' gelöscht.", username);
-        } catch (Exception e) {
-            log.error("Konnte Nachweise für Benutzer '{}' nicht vollständig löschen: {}", username, e.getMessage());
-        }
-
-        // Delete Profile Image
-        try {
-            deleteProfileImage(username);
-            log.info("Profilbild für Benutzer '{}' gelöscht.", username);
+            loescheProfilbildDatei(user);
         } catch (IOException e) {
             log.error("Konnte Profilbild für Benutzer '{}' nicht löschen: {}", username, e.getMessage());
         }
 
-        userRepository.delete(user);
+        tokenVersionService.evict(userId);
+        refreshTokenService.deleteByUserId(userId);
+        invalidateCaches(user);
         log.info("Benutzer '{}' erfolgreich aus der Datenbank gelöscht.", username);
     }
 
@@ -139,7 +163,9 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new IllegalStateException("ROLE_ADMIN ist nicht konfiguriert"));
 
         target.getRoles().add(adminRole);
+        target.setTokenVersion(target.getTokenVersion() + 1);
         userRepository.save(target);
+        revokeTokens(target);
         log.info("ROLE_ADMIN zugewiesen an User: {}", targetUsername);
         try {
             roleAuditService.record("GRANT", targetUsername, performedBy, "Assigned ROLE_ADMIN");
@@ -186,7 +212,9 @@ public class UserService implements UserDetailsService {
 
         boolean removed = target.getRoles().removeIf(r -> r.getName() == ERole.ROLE_ADMIN);
         if (removed) {
+            target.setTokenVersion(target.getTokenVersion() + 1);
             userRepository.save(target);
+            revokeTokens(target);
             log.info("ROLE_ADMIN entfernt von User: {}", targetUsername);
             try {
                 roleAuditService.record("REVOKE", targetUsername, performedBy, "Removed ROLE_ADMIN");
@@ -204,6 +232,7 @@ public class UserService implements UserDetailsService {
                                 .orElseThrow(() -> new IllegalStateException("ROLE_USER ist nicht konfiguriert"));
                         target.getRoles().add(userRole);
                         userRepository.save(target);
+                        invalidateCaches(target);
                         log.info("ROLE_USER automatisch zugewiesen an User: {} (nach Entzug von ADMIN)",
                                 targetUsername);
                         try {
@@ -231,26 +260,69 @@ public class UserService implements UserDetailsService {
     }
 
     public boolean isAdmin(String username) {
-        try {
-            User user = findByUsername(username);
-            return user.getRoles().stream().anyMatch(r -> r.getName() == ERole.ROLE_ADMIN);
-        } catch (Exception e) {
-            return false;
-        }
+        return principalCache.findByUsername(username)
+                .map(p -> p.hasRole(ERole.ROLE_ADMIN))
+                .orElse(false);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         // The "username" parameter is treated as the email for authentication purposes
+        // Geht bewusst immer zur DB: beim Login brauchen wir den Passwort-Hash
         return userRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Benutzer mit E-Mail nicht gefunden: " + username));
     }
 
+    /**
+     * Lädt den Principal für einen authentifizierten Request über den {@link PrincipalCache}.
+     * Der zurückgegebene User ist losgelöst (kein Passwort, keine Collections) und darf nicht gespeichert werden.
+     */
+    public UserDetails loadPrincipalByEmail(String email) throws UsernameNotFoundException {
+        return principalCache.findByEmail(email)
+                .map(PrincipalSnapshot::toUser)
+                .orElseThrow(() -> new UsernameNotFoundException("Benutzer mit E-Mail nicht gefunden: " + email));
+    }
+
+    public Optional<User> findPrincipalById(UUID id) {
+        return principalCache.findById(id).map(PrincipalSnapshot::toUser);
+    }
+
+    /**
+     * Wie {@link #findPrincipalById(UUID)}, aber garantiert mit der aktuellen `tokenVersion` (z.B. zum Ausstellen
+     * neuer Tokens). Der Snapshot kann auf dieser Instanz bis zur Cache-TTL alt sein, wenn die Version woanders
+     * hochgezählt wurde – dann fliegt er raus und Rollen und Version kommen frisch aus der DB.
+     */
+    public Optional<User> findCurrentPrincipalById(UUID id) {
+        Optional<User> user = findPrincipalById(id);
+        if (user.isPresent() && user.get().getTokenVersion() != tokenVersionService.currentVersion(id)) {
+            principalCache.evict(user.get());
+            user = findPrincipalById(id);
+        }
+        return user;
+    }
+
+    public PrincipalSnapshot findPrincipalByUsername(String username) {
+        return principalCache.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+    }
+
     public User findByUsername(String username) {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
     }
 
+    // Nach dem Hochzählen der tokenVersion: neue Version verteilen, alle älteren JWTs sind ab jetzt ungültig
+    private void revokeTokens(User user) {
+        tokenVersionService.publish(user.getId(), user.getTokenVersion());
+        invalidateCaches(user);
+    }
+
+    // Gecachte Claims und Principals des Users wegwerfen, damit Änderungen sofort greifen
+    private void invalidateCaches(User user) {
+        verifiedTokenCache.invalidateSubject(user.getEmail());
+        principalCache.evict(user);
+    }
+
     public void changePassword(String username, String oldPassword, String newPassword) {
         User user = findByUsername(username);
 
@@ -261,13 +333,19 @@ public class UserService implements UserDetailsService {
 
         // Setze das neue Passwort
         user.setPassword(passwordEncoder.encode(newPassword));
+        user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
+        revokeTokens(user);
         log.info("AUDIT: Passwort wurde vom Benutzer '{}' geändert.", username);
     }
 
     public void resetPassword(User user, String newPassword) {
         user.setPassword(passwordEncoder.encode(newPassword));
+        user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
+        revokeTokens(user);
+        // Passwort vergessen = evtl. kompromittiert -> alle Geräte abmelden
+        refreshTokenService.deleteByUserId(user.getId());
         log.info("AUDIT: Passwort für Benutzer '{}' wurde über die Passwort-zurücksetzen-Funktion geändert.", user.getUsername());
     }
 
@@ -276,7 +354,9 @@ public class UserService implements UserDetailsService {
         user.setAusbildungsjahr(request.getAusbildungsjahr());
         user.setTelefonnummer(request.getTelefonnummer());
         user.setTeam(request.getTeam());
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        invalidateCaches(savedUser);
+        return savedUser;
     }
 
 
@@ -448,6 +528,7 @@ public class UserService implements UserDetailsService {
         // Update den User
         user.setProfileImageUrl("/uploads/profile-images/" + newFilename);
         User savedUser = userRepository.save(user);
+        invalidateCaches(savedUser);
         log.info("Profilbild hochgeladen für User: {}", username);
 
         return savedUser;
@@ -456,7 +537,19 @@ public class UserService implements UserDetailsService {
     public User deleteProfileImage(String username) throws IOException {
         User user = findByUsername(username);
 
-        // Lösche das Bild aus dem Dateisystem, falls vorhanden
+        loescheProfilbildDatei(user);
+
+        // Setze die URL auf null
+        user.setProfileImageUrl(null);
+        User savedUser = userRepository.save(user);
+        invalidateCaches(savedUser);
+        log.info("Profilbild-URL entfernt für User: {}", username);
+
+        return savedUser;
+    }
+
+    // Lösche das Bild aus dem Dateisystem, falls vorhanden
+    private void loescheProfilbildDatei(User user) throws IOException {
         if (user.getProfileImageUrl() != null && !user.getProfileImageUrl().isEmpty()) {
             try {
                 String filename = user.getProfileImageUrl()
@@ -469,12 +562,5 @@ public class UserService implements UserDetailsService {
                 throw new IOException("Fehler beim Löschen der Profilbild-Datei", e);
             }
         }
-
-        // Setze die URL auf null
-        user.setProfileImageUrl(null);
-        User savedUser = userRepository.save(user);
-        log.info("Profilbild-URL entfernt für User: {}", username);
-
-        return savedUser;
     }
 }
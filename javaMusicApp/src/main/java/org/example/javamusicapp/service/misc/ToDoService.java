@@ -4,7 +4,10 @@ import org.example.javamusicapp.model.ToDo;
 import org.example.javamusicapp.model.User;
 import org.example.javamusicapp.repository.ToDoRepository;
 import org.example.javamusicapp.repository.UserRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -16,7 +19,8 @@ import java.util.UUID;
  *
  * Die Haupt-Gigs sind:
  * - **createToDo()**: Erstellt ein neues To-Do und weist es dem eingeloggten User zu.
- * - **findByUserUsername()**: Holt alle To-Dos für einen bestimmten User aus der Datenbank.
+ * - **findByUserUsername()**: Holt alle To-Dos für einen bestimmten User aus der Datenbank
+ *   (bzw. seitenweise ohne `count(*)` per `findSliceByUserUsername()`).
  * - **deleteToDoIfOwner()**: Löscht ein To-Do, aber nur, wenn der User, der die Anfrage stellt,
  *   auch der Owner des To-Dos ist. Security first!
  * - **update/replaceToDoIfOwner()**: Aktualisiert ein To-Do, ebenfalls mit Sicherheitscheck.
@@ -40,14 +44,21 @@ public class ToDoService {
         return toDoRepository.save(toDo);
     }
 
+    @Transactional(readOnly = true)
     public ToDo findById(UUID id) {
         return toDoRepository.findById(id).orElse(null);
     }
 
+    @Transactional(readOnly = true)
     public List<ToDo> findByUserUsername(String username) {
         return toDoRepository.findByUserUsername(username);
     }
 
+    @Transactional(readOnly = true)
+    public Slice<ToDo> findSliceByUserUsername(String username, int page, int size) {
+        return toDoRepository.findSliceByUserUsername(username, PageRequest.of(page, size));
+    }
+
     public void deleteToDoIfOwner(UUID id, String username) {
         ToDo toDo = toDoRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("ToDo not found: " + id));
@@ -23,6 +23,9 @@ import java.util.UUID;
  *   Status geändert wird, ruft der `NachweisService` diese Methode auf.
  *   Sie speichert dann einen `NachweisAuditLog`-Eintrag in der Datenbank.
  *
+ * - **loggeMassenAktion()**: Für Massen-Löschungen ein einziges `INSERT ... SELECT` für alle betroffenen
+ *   Nachweise (ohne JSON-Snapshots), statt jeden Nachweis zu laden und einzeln zu protokollieren.
+ *
  * Das Besondere: Sie speichert den alten Zustand und den neuen Zustand des Nachweises
  * als JSON-String. Dadurch kann man später im Audit-Log ganz genau sehen, welche
  * Felder sich geändert haben. Man weiß also immer, wer was wann geändert hat.
@@ -46,6 +49,18 @@ public class NachweisAuditService {
         objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
     }
 
+    /**
+     * Protokolliert dieselbe Aktion für alle Nachweise eines Azubis (oder mit `azubiId == null` für alle Nachweise)
+     * in einem Statement. Muss laufen, bevor die Nachweise gelöscht werden.
+     */
+    public int loggeMassenAktion(UUID azubiId, String aktion, String benutzerName) {
+        int anzahl = azubiId != null
+                ? nachweisAuditLogRepository.loggeAktionFuerAlleVonAzubi(azubiId, aktion, benutzerName)
+                : nachweisAuditLogRepository.loggeAktionFuerAlle(aktion, benutzerName);
+        log.debug("Massen-Audit '{}' von {} für {} Nachweis(e) geschrieben", aktion, benutzerName, anzahl);
+        return anzahl;
+    }
+
     public void loggeNachweisAktion(UUID nachweisId, String aktion, String benutzerName, Nachweis alterNachweis,
             Nachweis neuerNachweis) {
         String alteDatenJson = null;
@@ -1,11 +1,23 @@
 package org.example.javamusicapp.service.nachweis;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.javamusicapp.model.User;
 import org.example.javamusicapp.repository.NachweisRepository;
+import org.example.javamusicapp.service.auth.PrincipalCache;
+import org.example.javamusicapp.service.auth.PrincipalSnapshot;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 🛡️ **Was geht hier ab?**
@@ -22,19 +34,46 @@ import java.util.UUID;
  *   direkt in den User-Rollen, sondern wird daraus abgeleitet, ob der User in der
  *   `Nachweis`-Tabelle als Ausbilder eingetragen ist.
  *
+ * Beide Checks laden KEINE Entities mehr: `isOwner()` holt per Projektion nur die `azubi_id` des Nachweises
+ * (ändert sich nie, darf also im Prozess gecached werden), `isAusbilder()` wird pro Username mit kurzer TTL
+ * (`app.nachweis-security.ausbilder-ttl-seconds`) gecached. Innerhalb eines Requests wird jedes Ergebnis
+ * zusätzlich als Request-Attribut gemerkt – mehrere SpEL-Checks kosten so höchstens eine Query.
+ *
  * Macht unsere Security-Regeln also flexibler und smarter.
  */
+@Slf4j
 @Service("nachweisSecurityService")
-@RequiredArgsConstructor
 public class NachweisSecurityService {
 
+    private static final int MAX_EINTRAEGE = 50_000;
+    private static final String REQUEST_ATTR_PREFIX = NachweisSecurityService.class.getName() + ".";
+
     private final NachweisRepository nachweisRepository;
+    private final PrincipalCache principalCache;
+    private final long ausbilderTtlMillis;
+
+    // nachweisId -> azubiId; der Azubi eines Nachweises ändert sich nie
+    private final Map<UUID, UUID> azubiIdCache = new ConcurrentHashMap<>();
+    // username -> (istAusbilder, gültig bis)
+    private final Map<String, AusbilderEintrag> ausbilderCache = new ConcurrentHashMap<>();
+    // Wird bei jeder Ausbilder-Invalidierung hochgezählt
+    private final AtomicLong generation = new AtomicLong();
+
+    public NachweisSecurityService(
+            NachweisRepository nachweisRepository,
+            PrincipalCache principalCache,
+            @Value("${app.nachweis-security.ausbilder-ttl-seconds:60}") long ausbilderTtlSeconds) {
+        this.nachweisRepository = nachweisRepository;
+        this.principalCache = principalCache;
+        this.ausbilderTtlMillis = ausbilderTtlSeconds * 1000;
+    }
 
     public boolean isOwner(Authentication authentication, UUID nachweisId) {
-        String username = authentication.getName();
-        return nachweisRepository.findById(nachweisId)
-                .map(nachweis -> nachweis.getAzubi().getUsername().equals(username))
-                .orElse(false);
+        if (authentication == null || nachweisId == null) {
+            return false;
+        }
+        UUID userId = userIdVon(authentication);
+        return userId != null && azubiIdVon(nachweisId).map(userId::equals).orElse(false);
     }
 
     /*
@@ -47,10 +86,134 @@ public class NachweisSecurityService {
         if (authentication == null)
             return false;
         String username = authentication.getName();
-        try {
-            return nachweisRepository.existsByAusbilderUsername(username);
-        } catch (Exception e) {
-            return false;
+        String requestKey = REQUEST_ATTR_PREFIX + "ausbilder:" + username;
+        Object memo = requestMemo(requestKey);
+        if (memo instanceof Boolean ausbilder) {
+            return ausbilder;
+        }
+
+        long now = System.currentTimeMillis();
+        AusbilderEintrag eintrag = ausbilderCache.get(username);
+        boolean ausbilder;
+        if (eintrag != null && eintrag.gueltigBis > now) {
+            ausbilder = eintrag.ausbilder;
+        } else {
+            long vorher = generation.get();
+            try {
+                ausbilder = nachweisRepository.existsByAusbilderUsername(username);
+            } catch (Exception e) {
+                // Fehler werden nicht gecached
+                return false;
+            }
+            if (ausbilderCache.size() >= MAX_EINTRAEGE) {
+                ausbilderCache.values().removeIf(e -> e.gueltigBis <= now);
+            }
+            // Während der Query invalidiert -> Ergebnis nicht cachen, es kann schon veraltet sein
+            if (generation.get() == vorher && ausbilderCache.size() < MAX_EINTRAEGE) {
+                ausbilderCache.put(username, new AusbilderEintrag(ausbilder, now + ausbilderTtlMillis));
+            }
+        }
+        merkeImRequest(requestKey, ausbilder);
+        return ausbilder;
+    }
+
+    /**
+     * Nach dem Anlegen/Ändern eines Nachweises aufrufen, mit dem neuen UND dem bisherigen Ausbilder: Wer gerade
+     * eingetragen wurde, soll nicht erst nach Ablauf der TTL als Ausbilder erkannt werden – und wer ausgetragen
+     * wurde, nicht noch so lange als Ausbilder gelten. Wie beim `NachweisZaehlerCache` erst nach dem Commit,
+     * sonst könnte ein paralleler Check den alten Stand gleich wieder cachen.
+     */
+    public void ausbilderGeaendert(String... usernames) {
+        nachDemCommit(() -> {
+            generation.incrementAndGet();
+            for (String username : usernames) {
+                if (username != null) {
+                    ausbilderCache.remove(username);
+                }
+            }
+        });
+    }
+
+    /**
+     * Nach dem Löschen eines Nachweises aufrufen, damit die ID nicht mehr als "gehört User X" gilt.
+     */
+    public void nachweisGeloescht(UUID nachweisId) {
+        azubiIdCache.remove(nachweisId);
+    }
+
+    public void alleNachweiseGeloescht() {
+        azubiIdCache.clear();
+        generation.incrementAndGet();
+        ausbilderCache.clear();
+    }
+
+    private Optional<UUID> azubiIdVon(UUID nachweisId) {
+        String requestKey = REQUEST_ATTR_PREFIX + "azubi:" + nachweisId;
+        Object memo = requestMemo(requestKey);
+        if (memo instanceof UUID azubiId) {
+            return Optional.of(azubiId);
+        }
+
+        UUID azubiId = azubiIdCache.get(nachweisId);
+        if (azubiId == null) {
+            Optional<UUID> geladen = nachweisRepository.findAzubiIdById(nachweisId);
+            if (geladen.isEmpty()) {
+                return Optional.empty();
+            }
+            azubiId = geladen.get();
+            if (azubiIdCache.size() >= MAX_EINTRAEGE) {
+                // Keine Zeitstempel nötig: die Werte werden nie falsch, nur die Größe muss begrenzt sein
+                azubiIdCache.clear();
+                log.debug("Ownership-Cache geleert (Obergrenze {} erreicht)", MAX_EINTRAEGE);
+            }
+            azubiIdCache.put(nachweisId, azubiId);
+        }
+        merkeImRequest(requestKey, azubiId);
+        return Optional.of(azubiId);
+    }
+
+    // Der Principal im SecurityContext ist unser User (aus dem PrincipalCache bzw. den JWT-Claims) und hat die ID schon
+    private UUID userIdVon(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof User user && user.getId() != null) {
+            return user.getId();
+        }
+        return principalCache.findByUsername(authentication.getName())
+                .map(PrincipalSnapshot::getId)
+                .orElse(null);
+    }
+
+    private static void nachDemCommit(Runnable invalidierung) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidierung.run();
+                }
+            });
+        } else {
+            invalidierung.run();
+        }
+    }
+
+    private static Object requestMemo(String key) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        return request != null ? request.getAttribute(key, RequestAttributes.SCOPE_REQUEST) : null;
+    }
+
+    private static void merkeImRequest(String key, Object value) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(key, value, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private static class AusbilderEintrag {
+        final boolean ausbilder;
+        final long gueltigBis;
+
+        AusbilderEintrag(boolean ausbilder, long gueltigBis) {
+            this.ausbilder = ausbilder;
+            this.gueltigBis = gueltigBis;
         }
     }
 }
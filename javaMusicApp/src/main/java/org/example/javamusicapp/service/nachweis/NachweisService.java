@@ -2,7 +2,10 @@ package org.example.javamusicapp.service.nachweis;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.javamusicapp.controller.nachweisController.dto.ActivityPatchRequest;
 import org.example.javamusicapp.controller.nachweisController.dto.CreateNachweisRequest;
+import org.example.javamusicapp.controller.nachweisController.dto.NachweisSummaryDto;
+import org.example.javamusicapp.controller.nachweisController.dto.StundenAuswertungDto;
 import org.example.javamusicapp.exception.ResourceNotFoundException;
 import org.example.javamusicapp.exception.UnauthorizedActionException;
 import org.example.javamusicapp.model.Activity;
@@ -10,17 +13,32 @@ import org.example.javamusicapp.model.Nachweis;
 import org.example.javamusicapp.model.User;
 import org.example.javamusicapp.model.enums.EStatus;
 import org.example.javamusicapp.model.enums.Weekday;
+import org.example.javamusicapp.repository.ActivityRepository;
 import org.example.javamusicapp.repository.NachweisRepository;
 import org.example.javamusicapp.repository.UserRepository;
+import org.example.javamusicapp.service.auth.PrincipalCache;
+import org.example.javamusicapp.service.auth.PrincipalSnapshot;
 import org.example.javamusicapp.service.auth.UserService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -56,10 +74,15 @@ import java.io.IOException;
 public class NachweisService {
 
     private final NachweisRepository nachweisRepository;
+    private final ActivityRepository activityRepository;
     private final UserRepository userRepository;
     private final EmailService emailService; // Inject EmailService
     private final PdfExportService pdfExportService; // Inject PdfExportService
     private final NachweisAuditService nachweisAuditService; // Inject NachweisAuditService
+    private final PrincipalCache principalCache;
+    private final NachweisSecurityService nachweisSecurityService;
+    private final NachweisZaehlerCache nachweisZaehlerCache;
+    private final StundenStatistikService stundenStatistikService;
 
     private final Path rootLocation = Paths.get("generated_pdfs");
 
@@ -110,6 +133,9 @@ public class NachweisService {
         }
 
         Nachweis savedNachweis = nachweisRepository.save(nachweis); // Save first to get ID
+        nachweisSecurityService.ausbilderGeaendert(ausbilder.getUsername());
+        nachweisZaehlerCache.azubiGeaendert(user.getId());
+        stundenStatistikService.markiereGeaendert();
         nachweisAuditService.loggeNachweisAktion(savedNachweis.getId(), "ERSTELLT", username, null, savedNachweis);
 
         try {
@@ -214,52 +240,106 @@ public class NachweisService {
         }
     }
 
+    @Transactional(readOnly = true)
     public Page<Nachweis> kriegeNachweiseVonAzubiBenutzername(String username, int page, int size) {
-        User azubi = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("Benutzer nicht gefunden: " + username));
+        UUID azubiId = azubiIdVon(username);
         Pageable pageable = PageRequest.of(page, size);
-        return nachweisRepository.findAllByAzubiId(azubi.getId(), pageable);
+        return nachweisRepository.ladeSeiteMitDetails(nachweisRepository.findIdsByAzubiId(azubiId, pageable));
     }
 
+    @Transactional(readOnly = true)
     public Page<Nachweis> findAllNachweise(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return nachweisRepository.findAll(pageable);
+        return nachweisRepository.ladeSeiteMitDetails(nachweisRepository.findAllIds(pageable));
     }
 
+    @Transactional(readOnly = true)
     public Page<Nachweis> findNachweiseByUserId(UUID userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return nachweisRepository.findAllByAzubiId(userId, pageable);
+        return nachweisRepository.ladeSeiteMitDetails(nachweisRepository.findIdsByAzubiId(userId, pageable));
     }
 
-    public Page<Nachweis> kriegeNachweiseVonAzubiBenutzernameMitFilterUndPagination(String username, EStatus status,
-            int page, int size) {
-        User azubi = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("Benutzer nicht gefunden: " + username));
+    @Transactional(readOnly = true)
+    public Page<NachweisSummaryDto> kriegeNachweiseVonAzubiBenutzernameMitFilterUndPagination(String username,
+            EStatus status, int page, int size) {
+        UUID azubiId = azubiIdVon(username);
         Pageable pageable = PageRequest.of(page, size);
 
-        if (status != null) {
-            return nachweisRepository.findAllByAzubiIdAndStatus(azubi.getId(), status, pageable);
-        } else {
-            return nachweisRepository.findAllByAzubiId(azubi.getId(), pageable);
-        }
+        return status != null
+                ? nachweisRepository.findSummariesByAzubiIdAndStatus(azubiId, status, pageable)
+                : nachweisRepository.findSummariesByAzubiId(azubiId, pageable);
     }
 
-    public Page<Nachweis> kriegeAlleNachweiseMitFilterUndPagination(EStatus status, int page, int size) {
+    // Die ID des eingeloggten Azubis kommt aus dem PrincipalCache, kein extra User-Load aus der DB
+    private UUID azubiIdVon(String username) {
+        return principalCache.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("Benutzer nicht gefunden: " + username))
+                .getId();
+    }
+
+    @Transactional(readOnly = true)
+    public Page<NachweisSummaryDto> kriegeAlleNachweiseMitFilterUndPagination(EStatus status, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        if (status != null) {
-            return nachweisRepository.findAllByStatus(status, pageable);
-        } else {
-            return nachweisRepository.findAll(pageable);
-        }
+        return status != null
+                ? nachweisRepository.findSummariesByStatus(status, pageable)
+                : nachweisRepository.findAllSummaries(pageable);
     }
 
-    public Page<Nachweis> findNachweiseByUserIdMitFilterUndPagination(UUID userId, EStatus status, int page, int size) {
+    @Transactional(readOnly = true)
+    public Page<NachweisSummaryDto> findNachweiseByUserIdMitFilterUndPagination(UUID userId, EStatus status, int page,
+            int size) {
         Pageable pageable = PageRequest.of(page, size);
-        if (status != null) {
-            return nachweisRepository.findAllByAzubiIdAndStatus(userId, status, pageable);
-        } else {
-            return nachweisRepository.findAllByAzubiId(userId, pageable);
-        }
+        return status != null
+                ? nachweisRepository.findSummariesByAzubiIdAndStatus(userId, status, pageable)
+                : nachweisRepository.findSummariesByAzubiId(userId, pageable);
+    }
+
+    // Slice-Varianten fürs Infinite Scrolling: kein count(*), nur "gibt's noch mehr?"
+    @Transactional(readOnly = true)
+    public Slice<NachweisSummaryDto> kriegeNachweiseVonAzubiBenutzernameAlsSlice(String username, EStatus status,
+            int page, int size) {
+        return findNachweiseByUserIdAlsSlice(azubiIdVon(username), status, page, size);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<NachweisSummaryDto> kriegeAlleNachweiseAlsSlice(EStatus status, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return status != null
+                ? nachweisRepository.findSummarySliceByStatus(status, pageable)
+                : nachweisRepository.findAllSummarySlice(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<NachweisSummaryDto> findNachweiseByUserIdAlsSlice(UUID userId, EStatus status, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return status != null
+                ? nachweisRepository.findSummarySliceByAzubiIdAndStatus(userId, status, pageable)
+                : nachweisRepository.findSummarySliceByAzubiId(userId, pageable);
+    }
+
+    // Gesamtzahlen nur auf Anfrage, gecached pro (Azubi, Status). Bewusst NICHT readOnly: Direkt nach einem Insert
+    // würde die Replica evtl. noch den alten Wert liefern, und der bliebe dann für die ganze TTL im Cache.
+    public long zaehleNachweiseVonAzubiBenutzername(String username, EStatus status) {
+        return nachweisZaehlerCache.zaehle(azubiIdVon(username), status);
+    }
+
+    public long zaehleNachweise(UUID azubiId, EStatus status) {
+        return nachweisZaehlerCache.zaehle(azubiId, status);
+    }
+
+    // Stunden pro Azubi und Bereich im Zeitraum, komplett in der DB summiert (azubiId null = alle Azubis)
+    @Transactional(readOnly = true)
+    public List<StundenAuswertungDto> stundenAuswertung(UUID azubiId, LocalDate von, LocalDate bis) {
+        return azubiId != null
+                ? activityRepository.summiereStundenVonAzubi(azubiId, von, bis)
+                : activityRepository.summiereStunden(von, bis);
+    }
+
+    // Ein Nachweis mit allem Drum und Dran (Aktivitäten, Azubi, Ausbilder) für die Detail-Ansicht
+    @Transactional(readOnly = true)
+    public Nachweis kriegeNachweisDetails(UUID id) {
+        return nachweisRepository.findWithDetailsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Nachweis nicht gefunden: " + id));
     }
 
     @Transactional
@@ -275,6 +355,152 @@ public class NachweisService {
         deletePdfFile(fileToDelete, nachweis.getId());
 
         nachweisRepository.deleteById(id);
+        nachweisSecurityService.nachweisGeloescht(id);
+        if (nachweis.getAusbilder() != null) {
+            nachweisSecurityService.ausbilderGeaendert(nachweis.getAusbilder().getUsername());
+        }
+        nachweisZaehlerCache.azubiGeaendert(nachweis.getAzubi().getId());
+        stundenStatistikService.markiereGeaendert();
+    }
+
+    /**
+     * Autosave für eine einzelne Zelle (Tag, Slot): ein SELECT und ein UPDATE (bzw. INSERT für einen neuen Slot),
+     * statt den ganzen Nachweis samt Aktivitäten neu zu schreiben. Die Stunden-Summen rechnet die DB per UPDATE nach. Kein PDF und keine Mail – die gibt's wie gehabt
+     * beim kompletten `PUT /{id}`. War der Nachweis schon bewertet, geht der Status zurück auf IN_BEARBEITUNG –
+     * dann wird der Nachweis wie beim PUT geladen und die Änderung landet im Audit-Log.
+     */
+    @Transactional
+    public Activity aktualisiereAktivitaet(UUID nachweisId, Weekday day, int slot, ActivityPatchRequest request,
+            String username) {
+        UUID azubiId = nachweisRepository.findAzubiIdById(nachweisId)
+                .orElseThrow(
+                        () -> new ResourceNotFoundException("Nachweis mit der ID " + nachweisId + " nicht gefunden."));
+        if (!azubiId.equals(azubiIdVon(username))) {
+            throw new UnauthorizedActionException("Sie sind nicht berechtigt, diesen Nachweis zu aktualisieren.");
+        }
+        if (nachweisRepository.findStatusById(nachweisId).orElse(null) != EStatus.IN_BEARBEITUNG) {
+            return aktualisiereAktivitaetMitStatusReset(nachweisId, azubiId, day, slot, request, username);
+        }
+
+        Activity gespeichert = activityRepository.findFirstByNachweisIdAndDayAndSlot(nachweisId, day, slot)
+                .map(activity -> {
+                    uebernehmeInhalt(activity, request.getDescription(), request.getHours(), request.getSection());
+                    return activityRepository.save(activity);
+                })
+                .orElseGet(() -> {
+                    // Leere Zelle: per "on conflict", damit zwei parallele Autosaves keine doppelte Zeile anlegen
+                    activityRepository.fuegeEinOderAktualisiere(UUID.randomUUID(), nachweisId, day.name(), slot,
+                            request.getDescription(), request.getHours(), request.getSection());
+                    return activityRepository.findFirstByNachweisIdAndDayAndSlot(nachweisId, day, slot)
+                            .orElseThrow();
+                });
+        nachweisRepository.berechneSummenNeu(nachweisId);
+        stundenStatistikService.markiereGeaendert();
+
+        // Falls der Nachweis seit dem Status-Check doch noch bewertet wurde
+        if (nachweisRepository.setzeStatus(nachweisId, EStatus.IN_BEARBEITUNG) > 0) {
+            nachweisZaehlerCache.azubiGeaendert(azubiId);
+            nachweisAuditService.loggeNachweisAktion(nachweisId, "AKTIVITAET_AKTUALISIERT", username, null,
+                    nachweisRepository.findById(nachweisId).orElse(null));
+        }
+        return gespeichert;
+    }
+
+    // Bewerteter Nachweis: über die Entity wie beim PUT, damit das Audit-Log den alten und neuen Stand kriegt
+    private Activity aktualisiereAktivitaetMitStatusReset(UUID nachweisId, UUID azubiId, Weekday day, int slot,
+            ActivityPatchRequest request, String username) {
+        Nachweis nachweis = nachweisRepository.findById(nachweisId)
+                .orElseThrow(
+                        () -> new ResourceNotFoundException("Nachweis mit der ID " + nachweisId + " nicht gefunden."));
+        Nachweis alterNachweisKopie = new Nachweis(nachweis); // Kopie für Audit-Log
+
+        Activity activity = findeZelle(nachweis, day, slot)
+                .orElseGet(() -> {
+                    Activity neu = createActivity(day, slot, null, null, null);
+                    nachweis.addActivity(neu);
+                    return neu;
+                });
+        uebernehmeInhalt(activity, request.getDescription(), request.getHours(), request.getSection());
+        nachweis.setStatus(EStatus.IN_BEARBEITUNG);
+        nachweis.aktualisiereSummen();
+
+        Nachweis updatedNachweis = nachweisRepository.save(nachweis);
+        nachweisZaehlerCache.azubiGeaendert(azubiId);
+        stundenStatistikService.markiereGeaendert();
+        nachweisAuditService.loggeNachweisAktion(updatedNachweis.getId(), "AKTIVITAET_AKTUALISIERT", username,
+                alterNachweisKopie, updatedNachweis);
+        // save() kann eine neue Aktivität beim Mergen kopieren, deshalb aus dem gespeicherten Nachweis holen
+        return findeZelle(updatedNachweis, day, slot).orElse(activity);
+    }
+
+    private static Optional<Activity> findeZelle(Nachweis nachweis, Weekday day, int slot) {
+        return nachweis.getActivities().stream()
+                .filter(a -> a.getDay() == day && Objects.equals(a.getSlot(), slot))
+                .findFirst();
+    }
+
+    /**
+     * Bringt die Aktivitäten eines Nachweises auf den gewünschten Stand, gematcht über (Tag, Slot):
+     * unveränderte Zeilen bleiben unangetastet, geänderte werden per UPDATE angepasst, neue Slots eingefügt
+     * und fehlende über `orphanRemoval` gelöscht. Vorher wurde bei jeder Änderung alles gelöscht und neu
+     * geschrieben.
+     */
+    private void gleicheAktivitaetenAb(Nachweis nachweis, List<Activity> gewuenscht) {
+        // Deque pro Slot, falls Altdaten einen Slot doppelt belegen
+        Map<String, Deque<Activity>> vorhanden = new HashMap<>();
+        for (Activity activity : nachweis.getActivities()) {
+            vorhanden.computeIfAbsent(slotKey(activity.getDay(), activity.getSlot()), k -> new ArrayDeque<>())
+                    .add(activity);
+        }
+
+        List<Activity> neu = new ArrayList<>();
+        for (Activity soll : gewuenscht) {
+            Deque<Activity> treffer = vorhanden.get(slotKey(soll.getDay(), soll.getSlot()));
+            Activity ist = treffer != null ? treffer.poll() : null;
+            if (ist == null) {
+                neu.add(soll);
+            } else {
+                ersetzeInhalt(ist, soll.getDescription(), soll.getHours(), soll.getSection());
+            }
+        }
+
+        // Per Identität entfernen: Activity.equals() vergleicht über @Data auch den Nachweis (und damit im Kreis)
+        Set<Activity> uebrig = Collections.newSetFromMap(new IdentityHashMap<>());
+        vorhanden.values().forEach(uebrig::addAll);
+        nachweis.getActivities().removeIf(uebrig::contains);
+        neu.forEach(nachweis::addActivity);
+    }
+
+    // PATCH: null heißt "nicht mitgeschickt", das Feld bleibt wie es ist.
+    // Setzt nur, was sich wirklich geändert hat (BigDecimal per compareTo, 8.0 == 8.00), damit kein unnötiges UPDATE
+    private static void uebernehmeInhalt(Activity activity, String description, BigDecimal hours, String section) {
+        if (description != null && !description.equals(activity.getDescription())) {
+            activity.setDescription(description);
+        }
+        if (hours != null && (activity.getHours() == null || hours.compareTo(activity.getHours()) != 0)) {
+            activity.setHours(hours);
+        }
+        if (section != null && !section.equals(activity.getSection())) {
+            activity.setSection(section);
+        }
+    }
+
+    // PUT: ersetzt alle drei Felder, null leert das Feld. Gleiche Werte werden übersprungen (kein unnötiges UPDATE)
+    private static void ersetzeInhalt(Activity activity, String description, BigDecimal hours, String section) {
+        if (!Objects.equals(description, activity.getDescription())) {
+            activity.setDescription(description);
+        }
+        BigDecimal alt = activity.getHours();
+        if (hours == null ? alt != null : alt == null || hours.compareTo(alt) != 0) {
+            activity.setHours(hours);
+        }
+        if (!Objects.equals(section, activity.getSection())) {
+            activity.setSection(section);
+        }
+    }
+
+    private static String slotKey(Weekday day, Integer slot) {
+        return day + ":" + slot;
     }
 
     private Activity createActivity(Weekday day, Integer slot, String description, BigDecimal hours, String section) {
@@ -307,14 +533,8 @@ public class NachweisService {
     }
 
     @Transactional
-    public void loescheAlleNachweise() {
-        List<Nachweis> allNachweise = nachweisRepository.findAll();
-        for (Nachweis nachweis : allNachweise) {
-            String userVollerName = nachweis.getAzubi().getName().toLowerCase().replaceAll(" ", "_");
-            Path userDirectory = rootLocation.resolve(userVollerName + "_" + nachweis.getAzubi().getId().toString());
-            Path fileToDelete = userDirectory.resolve(nachweis.getId().toString() + ".pdf");
-            deletePdfFile(fileToDelete, nachweis.getId());
-        }
+    public void loescheAlleNachweise(String ausgefuehrtVon) {
+        // Das ganze PDF-Verzeichnis fliegt eh weg, dafür müssen die Nachweise nicht erst geladen werden
         try {
             if (Files.exists(rootLocation)) {
                 Files.walk(rootLocation)
@@ -336,27 +556,33 @@ public class NachweisService {
         } catch (IOException e) {
             log.error("Fehler beim Löschen des Verzeichnisses {}: {}", rootLocation, e.getMessage());
         }
-        nachweisRepository.deleteAll();
+
+        // Drei Statements, egal wie viele Nachweise: Audit, Aktivitäten, Nachweise
+        nachweisAuditService.loggeMassenAktion(null, "GELOESCHT", ausgefuehrtVon);
+        activityRepository.deleteAllInBatch();
+        nachweisRepository.deleteAllInBatch();
+        nachweisSecurityService.alleNachweiseGeloescht();
+        nachweisZaehlerCache.allesGeaendert();
+        stundenStatistikService.markiereGeaendert();
     }
 
     @Transactional
-    public void loescheAlleNachweiseVonAzubi(String username) {
-        User azubi = userRepository.findByUsername(username)
+    public void loescheAlleNachweiseVonAzubi(String username, String ausgefuehrtVon) {
+        PrincipalSnapshot azubi = principalCache.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("Benutzer nicht gefunden: " + username));
-        List<Nachweis> nachweise = nachweisRepository.findAllByAzubiId(azubi.getId());
+        // Nur die IDs (für PDFs und Cache), nicht die Nachweise samt Aktivitäten
+        List<UUID> nachweisIds = nachweisRepository.findAllIdsByAzubiId(azubi.getId());
 
-        if (nachweise.isEmpty()) {
+        if (nachweisIds.isEmpty()) {
             log.info("Keine Nachweise für Benutzer '{}' zum Löschen gefunden.", username);
             return;
         }
 
-        // Define user directory path based on the first Nachweis (should be consistent)
         String userVollerName = azubi.getName().toLowerCase().replaceAll(" ", "_");
         Path userDirectory = rootLocation.resolve(userVollerName + "_" + azubi.getId().toString());
 
-        for (Nachweis nachweis : nachweise) {
-            Path fileToDelete = userDirectory.resolve(nachweis.getId().toString() + ".pdf");
-            deletePdfFile(fileToDelete, nachweis.getId());
+        for (UUID nachweisId : nachweisIds) {
+            deletePdfFile(userDirectory.resolve(nachweisId.toString() + ".pdf"), nachweisId);
         }
 
         // After deleting all files, delete the directory
@@ -370,7 +596,23 @@ public class NachweisService {
             // Decide if this should throw an exception or just be logged
         }
 
-        nachweisRepository.deleteAll(nachweise);
+        // In Abhängigkeits-Reihenfolge, je ein Statement: Audit, Aktivitäten, Nachweise
+        nachweisAuditService.loggeMassenAktion(azubi.getId(), "GELOESCHT", ausgefuehrtVon);
+        activityRepository.loescheAlleVonAzubi(azubi.getId());
+        nachweisRepository.loescheAlleVonAzubi(azubi.getId());
+        nachweisIds.forEach(nachweisSecurityService::nachweisGeloescht);
+        nachweisZaehlerCache.azubiGeaendert(azubi.getId());
+        stundenStatistikService.markiereGeaendert();
+    }
+
+    /**
+     * Vor dem Löschen eines Ausbilders: seine Azubi-Nachweise behalten, nur die Verknüpfung kappen (ein UPDATE).
+     */
+    @Transactional
+    public void entferneAusbilder(UUID ausbilderId, String ausbilderUsername) {
+        if (nachweisRepository.entferneAusbilder(ausbilderId) > 0) {
+            nachweisSecurityService.ausbilderGeaendert(ausbilderUsername);
+        }
     }
 
     @Transactional
@@ -386,6 +628,9 @@ public class NachweisService {
         Nachweis updatedNachweis = nachweisRepository.save(alterNachweis);
 
         nachweisAuditService.loggeNachweisAktion(updatedNachweis.getId(), "STATUS_AKTUALISIERT", username, alterNachweisKopie, updatedNachweis);
+        if (updatedNachweis.getAzubi() != null) {
+            nachweisZaehlerCache.azubiGeaendert(updatedNachweis.getAzubi().getId());
+        }
 
         // Send email to Azubi about status update
         User azubi = updatedNachweis.getAzubi();
@@ -505,9 +750,8 @@ public class NachweisService {
                         () -> new ResourceNotFoundException("Nachweis mit der ID " + nachweisId + " nicht gefunden."));
         Nachweis alterNachweisKopie = new Nachweis(alterNachweis); // Kopie für Audit-Log
 
-        User azubi = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("Benutzer nicht gefunden: " + username));
-        if (!alterNachweis.getAzubi().getId().equals(azubi.getId())) {
+        User azubi = alterNachweis.getAzubi();
+        if (!azubi.getId().equals(azubiIdVon(username))) {
             throw new UnauthorizedActionException("Sie sind nicht berechtigt, diesen Nachweis zu aktualisieren.");
         }
 
@@ -521,37 +765,39 @@ public class NachweisService {
         alterNachweis.setAusbilder(ausbilder);
         alterNachweis.setStatus(EStatus.IN_BEARBEITUNG); // Reset status to IN_BEARBEITUNG
 
-        // Clear existing activities and add new ones
-        alterNachweis.getActivities().clear();
+        // Aktivitäten per (Tag, Slot) abgleichen statt alles zu löschen und neu einzufügen
+        List<Activity> neueAktivitaeten = new ArrayList<>();
         if (request.getActivities() != null && !request.getActivities().isEmpty()) {
-            request.getActivities().forEach(activityDTO -> {
-                Activity activity = new Activity();
-                activity.setDay(activityDTO.getDay());
-                activity.setSlot(activityDTO.getSlot());
-                activity.setDescription(activityDTO.getDescription());
-                activity.setHours(activityDTO.getHours());
-                activity.setSection(activityDTO.getSection());
-                alterNachweis.addActivity(activity);
-            });
+            request.getActivities().forEach(activityDTO -> neueAktivitaeten.add(createActivity(activityDTO.getDay(),
+                    activityDTO.getSlot(), activityDTO.getDescription(), activityDTO.getHours(),
+                    activityDTO.getSection())));
         } else {
             // Re-add default activities if none provided
-            alterNachweis.addActivity(createActivity(Weekday.MONDAY, 1, "Schule", new BigDecimal("8.0"), "Theorie"));
-            alterNachweis.addActivity(createActivity(Weekday.TUESDAY, 1, "Teambesprechung mit Triesnha Ameilya",
+            neueAktivitaeten.add(createActivity(Weekday.MONDAY, 1, "Schule", new BigDecimal("8.0"), "Theorie"));
+            neueAktivitaeten.add(createActivity(Weekday.TUESDAY, 1, "Teambesprechung mit Triesnha Ameilya",
                     new BigDecimal("1.0"), "Meeting"));
-            alterNachweis.addActivity(
+            neueAktivitaeten.add(
                     createActivity(Weekday.TUESDAY, 2, "Coding mit Vergil", new BigDecimal("7.0"), "Entwicklung"));
-            alterNachweis.addActivity(createActivity(Weekday.WEDNESDAY, 1, "Layoutdesign mit Armin Wache",
+            neueAktivitaeten.add(createActivity(Weekday.WEDNESDAY, 1, "Layoutdesign mit Armin Wache",
                     new BigDecimal("4.0"), "Design"));
-            alterNachweis.addActivity(createActivity(Weekday.WEDNESDAY, 2, "Vibe coding mit Vu Quy Le",
+            neueAktivitaeten.add(createActivity(Weekday.WEDNESDAY, 2, "Vibe coding mit Vu Quy Le",
                     new BigDecimal("4.0"), "Entwicklung"));
-            alterNachweis.addActivity(
+            neueAktivitaeten.add(
                     createActivity(Weekday.THURSDAY, 1, "Coding mit Vergil", new BigDecimal("8.0"), "Entwicklung"));
-            alterNachweis.addActivity(
+            neueAktivitaeten.add(
                     createActivity(Weekday.FRIDAY, 1, "Coding mit Vergil", new BigDecimal("7.0"), "Entwicklung"));
-            alterNachweis.addActivity(createActivity(Weekday.FRIDAY, 2, "Code Review", new BigDecimal("1.0"), "QA"));
+            neueAktivitaeten.add(createActivity(Weekday.FRIDAY, 2, "Code Review", new BigDecimal("1.0"), "QA"));
         }
+        gleicheAktivitaetenAb(alterNachweis, neueAktivitaeten);
+        alterNachweis.aktualisiereSummen();
 
         Nachweis updatedNachweis = nachweisRepository.save(alterNachweis);
+        // Der bisherige Ausbilder kann damit seinen letzten Nachweis verloren haben
+        User alterAusbilder = alterNachweisKopie.getAusbilder();
+        nachweisSecurityService.ausbilderGeaendert(ausbilder.getUsername(),
+                alterAusbilder != null ? alterAusbilder.getUsername() : null);
+        nachweisZaehlerCache.azubiGeaendert(azubi.getId());
+        stundenStatistikService.markiereGeaendert();
         nachweisAuditService.loggeNachweisAktion(updatedNachweis.getId(), "AKTUALISIERT_AZUBI", username, alterNachweisKopie, updatedNachweis);
 
         try {
@@ -0,0 +1,136 @@
+package org.example.javamusicapp.service.nachweis;
+
+import org.example.javamusicapp.model.enums.EStatus;
+import org.example.javamusicapp.repository.NachweisRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🔢 **Was geht hier ab?**
+ * Die Listen laufen als `Slice` ohne `count(*)`. Wer doch eine Gesamtzahl braucht (Badge "12 offen"),
+ * holt sie hier – pro (Azubi, Status) gecached, damit nicht jeder Seitenaufruf zählt.
+ *
+ * - **TTL**: `app.nachweis-count.ttl-seconds` als Sicherheitsnetz, falls eine Änderung an uns vorbeiläuft.
+ * - **Invalidierung**: `NachweisService` ruft `azubiGeaendert()` bei Anlegen, Löschen und Status-Änderungen.
+ *   Dabei fliegen die Zähler des Azubis UND die globalen Zähler (Admin-Sicht) raus – innerhalb einer Transaktion
+ *   erst NACH dem Commit. Sonst könnte ein paralleler `/count` zwischen Invalidierung und Commit noch den alten
+ *   Stand zählen und ihn für die ganze TTL cachen. Aus demselben Grund wird ein Zähler nicht gespeichert, wenn
+ *   während des Zählens invalidiert wurde (`generation`).
+ * - **Primary**: Gezählt wird nie auf der Read-Replica. Aus einer Lese-Transaktion raus bekommt das Zählen eine
+ *   eigene Schreib-Transaktion, sonst könnte ein hinterherhängender Stand für die ganze TTL im Cache landen.
+ * - **Begrenzt**: Höchstens `MAX_EINTRAEGE` Zähler, abgelaufene werden bei Bedarf weggeräumt.
+ */
+@Component
+public class NachweisZaehlerCache {
+
+    private static final int MAX_EINTRAEGE = 10_000;
+    private static final String ALLE = "*";
+
+    private final NachweisRepository nachweisRepository;
+    private final TransactionTemplate eigeneTransaktion;
+    private final long ttlMillis;
+    private final Map<String, Eintrag> zaehler = new ConcurrentHashMap<>();
+    // Wird bei jeder Invalidierung hochgezählt
+    private final AtomicLong generation = new AtomicLong();
+
+    public NachweisZaehlerCache(
+            NachweisRepository nachweisRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.nachweis-count.ttl-seconds:60}") long ttlSeconds) {
+        this.nachweisRepository = nachweisRepository;
+        this.eigeneTransaktion = new TransactionTemplate(transactionManager);
+        this.eigeneTransaktion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * Anzahl der Nachweise eines Azubis (oder aller, wenn `azubiId` null ist), optional nur mit einem Status.
+     */
+    public long zaehle(UUID azubiId, EStatus status) {
+        String key = key(azubiId, status);
+        long now = System.currentTimeMillis();
+        Eintrag eintrag = zaehler.get(key);
+        if (eintrag != null && eintrag.gueltigBis > now) {
+            return eintrag.anzahl;
+        }
+
+        long vorher = generation.get();
+        long anzahl = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? eigeneTransaktion.execute(tx -> zaehleInDb(azubiId, status))
+                : zaehleInDb(azubiId, status);
+        if (generation.get() != vorher) {
+            // Während wir gezählt haben, wurde etwas committet – das Ergebnis kann schon veraltet sein
+            return anzahl;
+        }
+        if (zaehler.size() >= MAX_EINTRAEGE) {
+            zaehler.values().removeIf(e -> e.gueltigBis <= now);
+        }
+        if (zaehler.size() < MAX_EINTRAEGE) {
+            zaehler.put(key, new Eintrag(anzahl, now + ttlMillis));
+        }
+        return anzahl;
+    }
+
+    public void azubiGeaendert(UUID azubiId) {
+        String azubiPrefix = (azubiId != null ? azubiId.toString() : ALLE) + ":";
+        String globalPrefix = ALLE + ":";
+        nachDemCommit(() -> {
+            generation.incrementAndGet();
+            zaehler.keySet().removeIf(key -> key.startsWith(azubiPrefix) || key.startsWith(globalPrefix));
+        });
+    }
+
+    public void allesGeaendert() {
+        nachDemCommit(() -> {
+            generation.incrementAndGet();
+            zaehler.clear();
+        });
+    }
+
+    // Wie StundenStatistikService.markiereGeaendert: in einer Transaktion erst nach dem Commit, sonst sofort
+    private static void nachDemCommit(Runnable invalidierung) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidierung.run();
+                }
+            });
+        } else {
+            invalidierung.run();
+        }
+    }
+
+    private long zaehleInDb(UUID azubiId, EStatus status) {
+        if (azubiId == null) {
+            return status != null ? nachweisRepository.countByStatus(status) : nachweisRepository.count();
+        }
+        return status != null
+                ? nachweisRepository.countByAzubiIdAndStatus(azubiId, status)
+                : nachweisRepository.countByAzubiId(azubiId);
+    }
+
+    private static String key(UUID azubiId, EStatus status) {
+        return (azubiId != null ? azubiId.toString() : ALLE) + ":" + (status != null ? status.name() : ALLE);
+    }
+
+    private static class Eintrag {
+        final long anzahl;
+        final long gueltigBis;
+
+        Eintrag(long anzahl, long gueltigBis) {
+            this.anzahl = anzahl;
+            this.gueltigBis = gueltigBis;
+        }
+    }
+}
@@ -67,20 +67,16 @@ public class PdfExportService {
                 setIfExists(form, prefix + "_Sec_" + slot, safeString(a.getSection()));
             }
 
-            // Totals per day (example: Mo_Total)
-            BigDecimal grandTotal = BigDecimal.ZERO;
+            // Totals per day (example: Mo_Total), gespeichert am Nachweis statt pro Tag über alle Aktivitäten zu laufen
             for (Weekday day : Weekday.values()) {
-                BigDecimal total = nachweis.totalForDay(day);
                 String prefix = prefixForDay(day);
                 if (prefix != null) {
-                    setIfExists(form, prefix + "_Total", safeString(total));
+                    setIfExists(form, prefix + "_Total", safeString(nachweis.totalForDay(day)));
                 }
-                if (total != null)
-                    grandTotal = grandTotal.add(total);
             }
 
             // Gesamtstunden (summe aller Tage)
-            setIfExists(form, "Gesamtstunden", safeString(grandTotal));
+            setIfExists(form, "Gesamtstunden", safeString(nachweis.totalForWeek()));
 
             // Signatures / meta
             setIfExists(form, "Remark", null);
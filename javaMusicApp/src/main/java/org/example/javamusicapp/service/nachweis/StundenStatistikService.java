@@ -0,0 +1,138 @@
+package org.example.javamusicapp.service.nachweis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.javamusicapp.controller.admin.dto.StundenStatistikDto;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 📈 **Was geht hier ab?**
+ * Die Zahlen fürs Ausbilder-Dashboard: Stunden pro Azubi, Bereich (Theorie, Entwicklung, QA …) und Monat bzw. Jahr.
+ * Vorher hätte man dafür jeden Nachweis samt Aktivitäten über die API ziehen müssen.
+ *
+ * - **Materialized View** `stunden_statistik` (Migration V4): vorsummiert pro (Azubi, Monat, Bereich). Die Jahres-
+ *   Ansicht summiert beim Lesen nur noch die paar Monatszeilen.
+ * - **Refresh**: `NachweisService` meldet jede Änderung an Aktivitäten per `markiereGeaendert()` (erst nach dem
+ *   Commit). Alle `app.stats.refresh-interval-ms` (Standard 60s) wird die View dann per
+ *   `refresh materialized view concurrently` neu gerechnet – Leser werden dabei nicht blockiert. Ohne Änderung
+ *   passiert nichts. Die Zahlen hinken also höchstens ein Intervall hinterher.
+ *
+ * Die View gehört nicht zu einer Entity (Hibernate validiert nur Tabellen), deshalb läuft das hier über JDBC.
+ */
+@Slf4j
+@Service
+public class StundenStatistikService {
+
+    private static final String REFRESH_SQL = "refresh materialized view concurrently stunden_statistik";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    // Beim Start einmal auffrischen, wer weiß, was seit dem letzten Lauf passiert ist
+    private final AtomicBoolean geaendert = new AtomicBoolean(true);
+
+    public StundenStatistikService(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Merkt sich, dass die View neu gerechnet werden muss. Innerhalb einer Transaktion erst nach dem Commit, sonst
+     * könnte ein Refresh dazwischenfunken und die Änderung verpassen.
+     */
+    public void markiereGeaendert() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    geaendert.set(true);
+                }
+            });
+        } else {
+            geaendert.set(true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.stats.refresh-interval-ms:60000}")
+    public void aktualisiereWennGeaendert() {
+        if (!geaendert.getAndSet(false)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            jdbcTemplate.getJdbcTemplate().execute(REFRESH_SQL);
+            log.debug("Stunden-Statistik aufgefrischt in {} ms", System.currentTimeMillis() - start);
+        } catch (DataAccessException e) {
+            // Beim nächsten Durchlauf nochmal probieren
+            geaendert.set(true);
+            log.warn("Stunden-Statistik konnte nicht aufgefrischt werden: {}", e.getMessage());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<StundenStatistikDto> proMonat(UUID azubiId, Integer jahr) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = "select s.azubi_id, u.name, cast(extract(year from s.monat) as integer) as jahr,"
+                + " cast(extract(month from s.monat) as integer) as monat, s.section, s.stunden, s.nachweise"
+                + " from stunden_statistik s join app_user u on u.id = s.azubi_id"
+                + filter(azubiId, jahr, params)
+                + " order by u.name, s.monat, s.section";
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> StundenStatistikDto.builder()
+                .azubiId(rs.getObject("azubi_id", UUID.class))
+                .azubiName(rs.getString("name"))
+                .jahr(rs.getInt("jahr"))
+                .monat(rs.getInt("monat"))
+                .section(bereich(rs.getString("section")))
+                .stunden(rs.getBigDecimal("stunden"))
+                .nachweise(rs.getLong("nachweise"))
+                .build());
+    }
+
+    @Transactional(readOnly = true)
+    public List<StundenStatistikDto> proJahr(UUID azubiId, Integer jahr) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = "select s.azubi_id, u.name, cast(extract(year from s.monat) as integer) as jahr, s.section,"
+                + " sum(s.stunden) as stunden, sum(s.nachweise) as nachweise"
+                + " from stunden_statistik s join app_user u on u.id = s.azubi_id"
+                + filter(azubiId, jahr, params)
+                + " group by s.azubi_id, u.name, cast(extract(year from s.monat) as integer), s.section"
+                + " order by u.name, jahr, s.section";
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> StundenStatistikDto.builder()
+                .azubiId(rs.getObject("azubi_id", UUID.class))
+                .azubiName(rs.getString("name"))
+                .jahr(rs.getInt("jahr"))
+                .section(bereich(rs.getString("section")))
+                .stunden(rs.getBigDecimal("stunden"))
+                .nachweise(rs.getLong("nachweise"))
+                .build());
+    }
+
+    // Filter nur anhängen, wenn gesetzt – "(:x is null or ...)" mag PostgreSQL bei untypisierten NULLs nicht.
+    // Das Jahr als Monatsbereich, damit der Index auf monat greift.
+    private static String filter(UUID azubiId, Integer jahr, MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder(" where 1 = 1");
+        if (azubiId != null) {
+            where.append(" and s.azubi_id = :azubiId");
+            params.addValue("azubiId", azubiId);
+        }
+        if (jahr != null) {
+            where.append(" and s.monat >= :von and s.monat < :bis");
+            params.addValue("von", LocalDate.of(jahr, 1, 1));
+            params.addValue("bis", LocalDate.of(jahr + 1, 1, 1));
+        }
+        return where.toString();
+    }
+
+    // In der View steht '' für "kein Bereich", nach außen wieder null
+    private static String bereich(String section) {
+        return section == null || section.isEmpty() ? null : section;
+    }
+}
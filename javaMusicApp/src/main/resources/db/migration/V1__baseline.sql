@@ -0,0 +1,107 @@
+-- Baseline: das Schema, wie Hibernate es bisher per ddl-auto=update angelegt hat.
+-- Bestehende Datenbanken werden auf Version 1 "gebaselined" (siehe DatabaseSchemaConfig), dort läuft das hier nicht.
+
+create table roles (
+    id   uuid not null,
+    name varchar(20) check (name in ('ROLE_ADMIN', 'ROLE_USER')),
+    primary key (id)
+);
+
+create table app_user (
+    id                              uuid         not null,
+    username                        varchar(255) not null,
+    name                            varchar(255) not null,
+    ausbildungsjahr                 integer,
+    telefonnummer                   varchar(255),
+    team                            varchar(255),
+    password                        varchar(255) not null,
+    email                           varchar(255),
+    profile_image_url               varchar(255),
+    fehlgeschlagene_anmeldeversuche integer default 0,
+    account_gesperrt_bis            timestamp(6),
+    primary key (id),
+    constraint uk_app_user_username unique (username)
+);
+
+create table user_roles (
+    user_id uuid not null,
+    role_id uuid not null,
+    primary key (user_id, role_id),
+    constraint fk_user_roles_user foreign key (user_id) references app_user (id),
+    constraint fk_user_roles_role foreign key (role_id) references roles (id)
+);
+
+create table nachweis (
+    id                 uuid         not null,
+    name               varchar(255) not null,
+    datum_start        date,
+    datum_ende         date,
+    nummer             integer      not null,
+    ausbildungsjahr    varchar(255),
+    status             varchar(255) check (status in ('ABGELEHNT', 'IN_BEARBEITUNG', 'ANGENOMMEN')),
+    comment            varchar(255),
+    ausbilder_id       uuid,
+    azubi_id           uuid,
+    datum_azubi        date,
+    signatur_azubi     varchar(255),
+    signatur_ausbilder varchar(255),
+    primary key (id),
+    constraint fk_nachweis_ausbilder foreign key (ausbilder_id) references app_user (id),
+    constraint fk_nachweis_azubi foreign key (azubi_id) references app_user (id)
+);
+
+create table activity (
+    id          uuid not null,
+    nachweis_id uuid not null,
+    day         varchar(255) check (day in ('MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY')),
+    slot        integer,
+    description varchar(2000),
+    hours       numeric(38, 2),
+    section     varchar(255),
+    primary key (id),
+    constraint fk_activity_nachweis foreign key (nachweis_id) references nachweis (id)
+);
+
+create table nachweis_audit_log (
+    id             uuid         not null,
+    nachweis_id    uuid         not null,
+    aktion         varchar(255) not null,
+    aktions_zeit   timestamp(6) not null,
+    benutzer_name  varchar(255) not null,
+    alte_daten     text,
+    neue_daten     text,
+    primary key (id)
+);
+
+create sequence password_reset_tokens_seq start with 1 increment by 50;
+
+create table password_reset_tokens (
+    id          bigint                      not null,
+    token       varchar(255)                not null,
+    user_id     uuid                        not null,
+    expiry_date timestamp(6) with time zone not null,
+    primary key (id),
+    constraint uk_password_reset_tokens_token unique (token),
+    constraint uk_password_reset_tokens_user unique (user_id),
+    constraint fk_password_reset_tokens_user foreign key (user_id) references app_user (id)
+);
+
+create table role_audit (
+    id              bigint generated by default as identity,
+    action          varchar(255)  not null,
+    target_username varchar(255)  not null,
+    performed_by    varchar(255)  not null,
+    performed_at    timestamp(6)  not null,
+    details         varchar(2048),
+    primary key (id)
+);
+
+create table todo (
+    id          uuid         not null,
+    title       varchar(255) not null,
+    description varchar(255) not null,
+    status      varchar(20) check (status in ('CHECKED', 'UNCHECKED')),
+    user_id     uuid         not null,
+    primary key (id),
+    constraint fk_todo_user foreign key (user_id) references app_user (id)
+);
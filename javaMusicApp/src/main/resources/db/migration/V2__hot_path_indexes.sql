@@ -0,0 +1,18 @@
+-- Indizes für die heißen Queries. CONCURRENTLY, damit auf einer laufenden DB keine Tabelle gesperrt wird.
+-- Geht nicht in einer Transaktion, deshalb V2__hot_path_indexes.sql.conf (executeInTransaction=false).
+-- IF NOT EXISTS: Ein abgebrochener Lauf hinterlässt evtl. einen INVALID-Index, den muss man vorher droppen.
+
+-- Listen "meine Nachweise" (+ Status-Filter), Ownership-Checks
+create index concurrently if not exists idx_nachweis_azubi_status on nachweis (azubi_id, status);
+
+-- Ausbilder-Checks und Ausbilder-Ansichten
+create index concurrently if not exists idx_nachweis_ausbilder_status on nachweis (ausbilder_id, status);
+
+-- Audit-Historie eines Nachweises, sortiert nach Zeit
+create index concurrently if not exists idx_nachweis_audit_log_nachweis_zeit on nachweis_audit_log (nachweis_id, aktions_zeit);
+
+-- Aktivitäten eines Nachweises (Postgres legt für Foreign Keys keinen Index an)
+create index concurrently if not exists idx_activity_nachweis on activity (nachweis_id);
+
+-- Login/Passwort-Reset per E-Mail, case-insensitive
+create index concurrently if not exists idx_app_user_email_lower on app_user (lower(email));
@@ -0,0 +1,21 @@
+-- Stunden-Summen pro Tag und Woche am Nachweis, in ganzen Minuten (siehe Wochenminuten)
+alter table nachweis
+    add column minuten_montag     integer not null default 0,
+    add column minuten_dienstag   integer not null default 0,
+    add column minuten_mittwoch   integer not null default 0,
+    add column minuten_donnerstag integer not null default 0,
+    add column minuten_freitag    integer not null default 0,
+    add column minuten_samstag    integer not null default 0,
+    add column minuten_sonntag    integer not null default 0,
+    add column minuten_gesamt     integer not null default 0;
+
+-- Bestehende Nachweise einmalig aus den Aktivitäten befüllen (gleiche Rundung wie NachweisRepository.SUMMEN_UPDATE)
+update nachweis n set
+    minuten_montag     = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'MONDAY'), 0),
+    minuten_dienstag   = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'TUESDAY'), 0),
+    minuten_mittwoch   = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'WEDNESDAY'), 0),
+    minuten_donnerstag = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'THURSDAY'), 0),
+    minuten_freitag    = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'FRIDAY'), 0),
+    minuten_samstag    = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'SATURDAY'), 0),
+    minuten_sonntag    = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'SUNDAY'), 0),
+    minuten_gesamt     = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id), 0);
@@ -0,0 +1,19 @@
+-- Stunden pro Azubi, Monat und Bereich für die Ausbilder-Dashboards (GET /api/admin/stats).
+-- Wird von StundenStatistikService per "refresh materialized view concurrently" aktuell gehalten.
+-- Bereich ohne Angabe wird zu '' (der Unique-Index fürs concurrent Refresh verträgt keine NULLs).
+create materialized view stunden_statistik as
+select n.azubi_id                                  as azubi_id,
+       cast(date_trunc('month', n.datum_start) as date) as monat,
+       coalesce(a.section, '')                     as section,
+       sum(a.hours)                                as stunden,
+       count(distinct n.id)                        as nachweise
+from activity a
+         join nachweis n on n.id = a.nachweis_id
+where n.azubi_id is not null
+  and n.datum_start is not null
+  and a.hours is not null
+group by n.azubi_id, cast(date_trunc('month', n.datum_start) as date), coalesce(a.section, '')
+with data;
+
+create unique index ux_stunden_statistik on stunden_statistik (azubi_id, monat, section);
+create index idx_stunden_statistik_monat on stunden_statistik (monat);
@@ -0,0 +1,4 @@
+-- Token-Version pro User (siehe TokenVersionService): wird hochgezählt, sobald ältere JWTs ungültig werden sollen.
+-- Eigene Migration statt Baseline: bestehende Datenbanken werden per baselineOnMigrate auf V1 gesetzt und
+-- bekommen V1 nie ausgeführt. "if not exists", falls die Spalte dort schon per ddl-auto angelegt wurde.
+alter table app_user add column if not exists token_version integer not null default 0;
@@ -0,0 +1,36 @@
+-- Pro Nachweis darf eine Zelle im Wochenplan (Tag, Slot) nur einmal belegt sein. Zwei parallele Autosaves auf eine
+-- leere Zelle haben sonst beide eingefügt. Das PATCH setzt jetzt per "on conflict" auf diesen Index auf.
+-- Bewusst in einer Transaktion (kein CONCURRENTLY): Aufräumen und Index müssen zusammen passieren, sonst kann
+-- dazwischen wieder ein Duplikat entstehen. Die Tabelle ist pro Nachweis klein, der Build dauert nicht lange.
+
+-- Betroffene Nachweise merken, deren Stunden-Summen müssen danach neu gerechnet werden
+create temporary table activity_doppelt on commit drop as
+select distinct nachweis_id
+from activity
+group by nachweis_id, day, slot
+having count(*) > 1;
+
+-- Die zuletzt geschriebene Zeile (höchste ctid) bleibt, die anderen fliegen raus
+delete from activity a
+    using activity b
+where a.nachweis_id = b.nachweis_id
+  and a.day = b.day
+  and a.slot = b.slot
+  and a.ctid < b.ctid;
+
+-- Gleiche Rundung wie NachweisRepository.SUMMEN_UPDATE
+update nachweis n set
+    minuten_montag     = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'MONDAY'), 0),
+    minuten_dienstag   = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'TUESDAY'), 0),
+    minuten_mittwoch   = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'WEDNESDAY'), 0),
+    minuten_donnerstag = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'THURSDAY'), 0),
+    minuten_freitag    = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'FRIDAY'), 0),
+    minuten_samstag    = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'SATURDAY'), 0),
+    minuten_sonntag    = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id and a.day = 'SUNDAY'), 0),
+    minuten_gesamt     = coalesce((select sum(round(a.hours * 60)) from activity a where a.nachweis_id = n.id), 0)
+where n.id in (select nachweis_id from activity_doppelt);
+
+create unique index uk_activity_nachweis_day_slot on activity (nachweis_id, day, slot);
+
+-- Der neue Index fängt mit nachweis_id an und deckt damit alles ab, wofür idx_activity_nachweis (V2) da war
+drop index if exists idx_activity_nachweis;
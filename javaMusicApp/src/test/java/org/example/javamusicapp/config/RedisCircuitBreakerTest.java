@@ -0,0 +1,92 @@
+package org.example.javamusicapp.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.javamusicapp.exception.RedisUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Zustandswechsel des Redis-Circuit-Breakers: CLOSED → OPEN → HALF_OPEN → CLOSED (bzw. zurück auf OPEN).
+ */
+class RedisCircuitBreakerTest {
+
+    private static final long OPEN_MILLIS = 50;
+
+    private final RedisCircuitBreaker breaker = new RedisCircuitBreaker(new SimpleMeterRegistry(), 3, OPEN_MILLIS);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void oeffnetErstNachDerSchwelleUndErfolgeSetzenDenZaehlerZurueck() {
+        fehlschlag();
+        fehlschlag();
+        assertThat(breaker.execute(this::ok)).isEqualTo("ok");
+        fehlschlag();
+        fehlschlag();
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+
+        fehlschlag();
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void offenerBreakerFragtRedisGarNichtErst() {
+        oeffne();
+        int vorher = calls.get();
+
+        assertThatThrownBy(() -> breaker.execute(this::ok))
+                .isInstanceOf(RedisUnavailableException.class)
+                .satisfies(e -> assertThat(((RedisUnavailableException) e).getRetryAfterSeconds()).isPositive());
+        assertThat(calls.get()).isEqualTo(vorher);
+    }
+
+    @Test
+    void probeCallImHalfOpenSchliesstBeiErfolg() throws InterruptedException {
+        oeffne();
+        Thread.sleep(OPEN_MILLIS + 20);
+
+        String result = breaker.execute(() -> {
+            assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.HALF_OPEN);
+            // Während der Probe läuft, darf kein zweiter Call durch
+            assertThatThrownBy(() -> breaker.execute(this::ok)).isInstanceOf(RedisUnavailableException.class);
+            return ok();
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+        assertThat(breaker.execute(this::ok)).isEqualTo("ok");
+    }
+
+    @Test
+    void fehlgeschlagenerProbeCallOeffnetSofortWieder() throws InterruptedException {
+        oeffne();
+        Thread.sleep(OPEN_MILLIS + 20);
+
+        // Ein einzelner Fehler reicht im HALF_OPEN, egal wie hoch die Schwelle ist
+        fehlschlag();
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> breaker.execute(this::ok)).isInstanceOf(RedisUnavailableException.class);
+    }
+
+    private void oeffne() {
+        for (int i = 0; i < 3; i++) {
+            fehlschlag();
+        }
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+    }
+
+    private void fehlschlag() {
+        assertThatThrownBy(() -> breaker.execute(() -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("Redis weg");
+        })).isInstanceOf(RedisUnavailableException.class);
+    }
+
+    private String ok() {
+        calls.incrementAndGet();
+        return "ok";
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.javamusicapp.config.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Die Client-IP entscheidet über Rate-Limit-Buckets und Login-Sperren. Wer sie per `X-Forwarded-For` fälschen
+ * kann, bekommt beliebig viele frische Buckets – diese Fälle müssen also halten.
+ */
+class ClientIpResolverTest {
+
+    @Test
+    void ohneTrustedProxiesZaehltNurDerPeer() {
+        ClientIpResolver resolver = new ClientIpResolver("");
+
+        assertThat(resolver.resolve(request("203.0.113.7", "1.2.3.4"))).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void headerVonFremdemPeerWirdIgnoriert() {
+        ClientIpResolver resolver = new ClientIpResolver("10.0.0.0/8");
+
+        assertThat(resolver.resolve(request("203.0.113.7", "1.2.3.4"))).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void vomClientVorangestellteEintraegeZaehlenNicht() {
+        ClientIpResolver resolver = new ClientIpResolver("10.0.0.0/8");
+
+        // Client schickt selbst "1.2.3.4", der Proxy hängt die echte Adresse an
+        assertThat(resolver.resolve(request("10.0.0.5", "1.2.3.4, 203.0.113.7"))).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void mehrereEigeneProxiesWerdenUebersprungen() {
+        ClientIpResolver resolver = new ClientIpResolver("10.0.0.0/8, 192.168.16.0/20");
+
+        assertThat(resolver.resolve(request("10.0.0.5", "1.2.3.4, 203.0.113.7, 192.168.31.1, 10.1.2.3")))
+                .isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void cidrMitKrummemPrefixPrueftDieRestbits() {
+        ClientIpResolver resolver = new ClientIpResolver("10.0.0.0/8, 192.168.16.0/20");
+
+        // 192.168.32.1 liegt knapp außerhalb von /20 und ist damit der Client
+        assertThat(resolver.resolve(request("10.0.0.5", "203.0.113.7, 192.168.32.1"))).isEqualTo("192.168.32.1");
+    }
+
+    @Test
+    void ohneHeaderZaehltDerPeer() {
+        ClientIpResolver resolver = new ClientIpResolver("10.0.0.0/8");
+
+        assertThat(resolver.resolve(request("10.0.0.5", null))).isEqualTo("10.0.0.5");
+        assertThat(resolver.resolve(request("10.0.0.5", " "))).isEqualTo("10.0.0.5");
+    }
+
+    @Test
+    void nurEigeneProxiesInDerKetteNimmtDenErstenEintrag() {
+        ClientIpResolver resolver = new ClientIpResolver("10.0.0.0/8");
+
+        assertThat(resolver.resolve(request("10.0.0.5", "10.0.0.7, 10.0.0.6"))).isEqualTo("10.0.0.7");
+    }
+
+    @Test
+    void ipv6Proxies() {
+        ClientIpResolver resolver = new ClientIpResolver("2001:db8::/32");
+
+        assertThat(resolver.resolve(request("2001:db8::1", "2001:db9::42"))).isEqualTo("2001:db9::42");
+        assertThat(resolver.resolve(request("2001:db9::1", "1.2.3.4"))).isEqualTo("2001:db9::1");
+    }
+
+    @Test
+    void ungueltigeEintraegeWerdenIgnoriert() {
+        ClientIpResolver resolver = new ClientIpResolver("kein-proxy, 10.0.0.0/99, 10.0.0.0/8");
+
+        assertThat(resolver.resolve(request("10.0.0.5", "203.0.113.7"))).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void hostnamesImHeaderGeltenNieAlsProxy() {
+        // Kein DNS-Lookup für Header-Werte: ein Hostname darf sich nicht als eigener Proxy ausgeben
+        ClientIpResolver resolver = new ClientIpResolver("127.0.0.0/8");
+
+        assertThat(resolver.resolve(request("127.0.0.1", "203.0.113.7, localhost"))).isEqualTo("localhost");
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.javamusicapp.config.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Der lokale Fallback-Limiter: GCRA-Entscheidungen pro Key und die harte Obergrenze im Speicher.
+ */
+class LocalRateLimiterTest {
+
+    private static final int STRIPES = 16;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void erlaubtGenauDasLimitUndLehntDanachAb() {
+        LocalRateLimiter limiter = new LocalRateLimiter(meterRegistry, 3, 60, 1000, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            RateLimitDecision decision = limiter.tryAcquire("ip:1.2.3.4", 1);
+            assertThat(decision.isAllowed()).isTrue();
+            assertThat(decision.getRemaining()).isEqualTo(2 - i);
+        }
+
+        RateLimitDecision denied = limiter.tryAcquire("ip:1.2.3.4", 1);
+        assertThat(denied.isAllowed()).isFalse();
+        assertThat(denied.getRemaining()).isZero();
+        // Ein Token tropft alle 20s nach
+        assertThat(denied.getRetryAfterMillis()).isBetween(1L, 20_000L);
+    }
+
+    @Test
+    void kostenZaehlenMehrfachUndAbgelehnteRequestsVerbrauchenNichts() {
+        LocalRateLimiter limiter = new LocalRateLimiter(meterRegistry, 10, 60, 1000, 1000);
+
+        assertThat(limiter.tryAcquire("user:a", 8).isAllowed()).isTrue();
+        assertThat(limiter.tryAcquire("user:a", 5).isAllowed()).isFalse();
+        // Der abgelehnte Request hat nichts abgebucht, die restlichen 2 sind noch da
+        assertThat(limiter.tryAcquire("user:a", 2).isAllowed()).isTrue();
+        assertThat(limiter.tryAcquire("user:a", 1).isAllowed()).isFalse();
+    }
+
+    @Test
+    void keysSindVoneinanderUnabhaengig() {
+        LocalRateLimiter limiter = new LocalRateLimiter(meterRegistry, 1, 60, 1000, 1000);
+
+        assertThat(limiter.tryAcquire("ip:1.1.1.1", 1).isAllowed()).isTrue();
+        assertThat(limiter.tryAcquire("ip:1.1.1.1", 1).isAllowed()).isFalse();
+        assertThat(limiter.tryAcquire("ip:2.2.2.2", 1).isAllowed()).isTrue();
+    }
+
+    @Test
+    void bleibtUnterDerObergrenzeUndVerdraengtDenAeltestenKey() {
+        // Ein Eintrag pro Stripe
+        LocalRateLimiter limiter = new LocalRateLimiter(meterRegistry, 1, 60, STRIPES, 60_000);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire("ip:10.0." + (i / 256) + "." + (i % 256), 1);
+        }
+        assertThat(limiter.size()).isLessThanOrEqualTo(STRIPES);
+        assertThat(meterRegistry.get("ratelimit.local.evictions").tag("reason", "capacity").counter().count())
+                .isGreaterThanOrEqualTo(1000 - STRIPES);
+
+        // Zwei Keys im selben Stripe: der zweite verdrängt den ersten, der startet danach mit vollem Bucket
+        String erster = "ip:192.0.2.1";
+        String zweiter = keyImSelbenStripe(erster);
+        assertThat(limiter.tryAcquire(erster, 1).isAllowed()).isTrue();
+        assertThat(limiter.tryAcquire(erster, 1).isAllowed()).isFalse();
+        assertThat(limiter.tryAcquire(zweiter, 1).isAllowed()).isTrue();
+        assertThat(limiter.tryAcquire(erster, 1).isAllowed()).isTrue();
+    }
+
+    @Test
+    void sweeperRaeumtVolleBucketsAuf() throws InterruptedException {
+        // 1 Token pro Sekunde, Sweep bei jedem Request
+        LocalRateLimiter limiter = new LocalRateLimiter(meterRegistry, 1, 1, 1000, 0);
+
+        for (int i = 0; i < STRIPES; i++) {
+            limiter.tryAcquire("ip:198.51.100." + i, 1);
+        }
+        assertThat(limiter.size()).isEqualTo(STRIPES);
+
+        Thread.sleep(1100);
+        // Der Zeiger wandert reihum: nach STRIPES Requests ist jeder Stripe einmal gefegt
+        for (int i = 0; i < STRIPES; i++) {
+            limiter.tryAcquire("user:sweep", 1);
+        }
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(meterRegistry.get("ratelimit.local.evictions").tag("reason", "expired").counter().count())
+                .isEqualTo(STRIPES);
+    }
+
+    private static String keyImSelbenStripe(String key) {
+        int stripe = Math.floorMod(key.hashCode(), STRIPES);
+        for (int i = 0; ; i++) {
+            String candidate = "ip:203.0.113." + i;
+            if (Math.floorMod(candidate.hashCode(), STRIPES) == stripe && !candidate.equals(key)) {
+                return candidate;
+            }
+        }
+    }
+}
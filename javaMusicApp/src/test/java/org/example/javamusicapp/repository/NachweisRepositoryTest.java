@@ -0,0 +1,175 @@
+package org.example.javamusicapp.repository;
+
+import org.example.javamusicapp.config.JdbcBatchingConfig;
+import org.example.javamusicapp.model.Activity;
+import org.example.javamusicapp.model.Nachweis;
+import org.example.javamusicapp.model.Role;
+import org.example.javamusicapp.model.User;
+import org.example.javamusicapp.model.enums.ERole;
+import org.example.javamusicapp.model.enums.EStatus;
+import org.example.javamusicapp.model.enums.Weekday;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Zählt die SQL-Statements (= Round Trips) auf den heißen Nachweis-Pfaden:
+ * - Listenseite: Vorher pro Zeile Azubi, Ausbilder, Rollen und Aktivitäten einzeln nachgeladen.
+ *   Jetzt: IDs + Count + eine Fetch-Query, egal wie groß die Seite ist.
+ * - Speichern: Ohne JDBC-Batching ein INSERT pro Aktivität, mit Batching ein Batch für alle.
+ * - Summen: Die Stunden pro Tag/Woche landen beim Speichern direkt am Nachweis.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:nachweis;MODE=PostgreSQL;NON_KEYWORDS=DAY,VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        // Die Migrationen sind PostgreSQL-spezifisch (CONCURRENTLY), H2 bekommt das Schema von Hibernate
+        "spring.flyway.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(JdbcBatchingConfig.class)
+class NachweisRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private NachweisRepository nachweisRepository;
+
+    private User azubi;
+    private User ausbilder;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role();
+        role.setName(ERole.ROLE_USER);
+        entityManager.persist(role);
+
+        azubi = user("azubi", role);
+        ausbilder = user("ausbilder", role);
+        for (int i = 1; i <= 12; i++) {
+            entityManager.persist(nachweis(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void listenSeiteLaedtMitFesterAnzahlStatements() {
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        Page<Nachweis> page = nachweisRepository.ladeSeiteMitDetails(
+                nachweisRepository.findIdsByAzubiId(azubi.getId(), PageRequest.of(0, 10)));
+
+        // Alles anfassen, was Jackson beim Serialisieren anfassen würde
+        page.forEach(nachweis -> {
+            nachweis.getActivities().forEach(Activity::getDescription);
+            nachweis.getAzubi().getRoles().size();
+            nachweis.getAusbilder().getRoles().size();
+        });
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getTotalElements()).isEqualTo(12);
+        assertThat(page.getContent().get(0).getNummer()).isEqualTo(12);
+        assertThat(page.getContent()).allSatisfy(n -> assertThat(n.getActivities()).hasSize(8));
+        // IDs der Seite + Count + eine Fetch-Query
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void nachweisSpeichernSchicktAktivitaetenAlsBatch() {
+        Statistics statistics = statistics();
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+
+        // Vorher: Batch-Größe 1 = kein Batching, jede Aktivität ist ein eigener Round Trip
+        session.setJdbcBatchSize(1);
+        statistics.clear();
+        nachweisRepository.saveAndFlush(nachweis(100));
+        long ohneBatching = statistics.getPrepareStatementCount();
+
+        // Nachher: hibernate.jdbc.batch_size aus der JdbcBatchingConfig
+        session.setJdbcBatchSize(null);
+        statistics.clear();
+        nachweisRepository.saveAndFlush(nachweis(101));
+        long mitBatching = statistics.getPrepareStatementCount();
+
+        // 1 Nachweis + 8 Aktivitäten vs. 1 Nachweis + 1 Batch
+        assertThat(ohneBatching).isGreaterThanOrEqualTo(9);
+        assertThat(mitBatching).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void summenWerdenBeimSpeichernAmNachweisAbgelegt() {
+        Nachweis gespeichert = nachweisRepository.saveAndFlush(nachweis(102));
+        entityManager.clear();
+
+        Nachweis geladen = nachweisRepository.findById(gespeichert.getId()).orElseThrow();
+
+        // Mo-Do je 2x 4.0 Stunden, Fr-So nichts
+        assertThat(geladen.getWochenminuten().getMontag()).isEqualTo(480);
+        assertThat(geladen.getWochenminuten().getFreitag()).isZero();
+        assertThat(geladen.getWochenminuten().getGesamt()).isEqualTo(1920);
+        assertThat(geladen.totalForDay(Weekday.THURSDAY)).isEqualByComparingTo("8");
+        assertThat(geladen.totalForWeek()).isEqualByComparingTo("32");
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Nachweis nachweis(int nummer) {
+        Nachweis nachweis = new Nachweis();
+        nachweis.setName("Azubi");
+        nachweis.setNummer(nummer);
+        nachweis.setDatumStart(LocalDate.of(2025, 1, 6).plusWeeks(nummer));
+        nachweis.setDatumEnde(LocalDate.of(2025, 1, 10).plusWeeks(nummer));
+        nachweis.setStatus(EStatus.IN_BEARBEITUNG);
+        nachweis.setAzubi(azubi);
+        nachweis.setAusbilder(ausbilder);
+        for (Weekday day : new Weekday[] { Weekday.MONDAY, Weekday.TUESDAY, Weekday.WEDNESDAY,
+                Weekday.THURSDAY }) {
+            nachweis.addActivity(activity(day, 1));
+            nachweis.addActivity(activity(day, 2));
+        }
+        return nachweis;
+    }
+
+    private User user(String username, Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setName(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("x");
+        user.getRoles().add(role);
+        return entityManager.persist(user);
+    }
+
+    private static Activity activity(Weekday day, int slot) {
+        Activity activity = new Activity();
+        activity.setDay(day);
+        activity.setSlot(slot);
+        activity.setDescription("Entwicklung");
+        activity.setHours(new BigDecimal("4.0"));
+        activity.setSection("Praxis");
+        return activity;
+    }
+}